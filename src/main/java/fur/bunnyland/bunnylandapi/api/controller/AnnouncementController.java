@@ -1,41 +1,204 @@
 package fur.bunnyland.bunnylandapi.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fur.bunnyland.bunnylandapi.api.dto.PageResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.*;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementCatalog;
 import fur.bunnyland.bunnylandapi.domain.ResponseObject;
+import fur.bunnyland.bunnylandapi.security.AuthenticatedUser;
+import fur.bunnyland.bunnylandapi.service.AnnouncementJsonCache;
 import fur.bunnyland.bunnylandapi.service.AnnouncementService;
+import fur.bunnyland.bunnylandapi.service.ApplicationWriteBehind;
+import fur.bunnyland.bunnylandapi.service.IdempotencyService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/announcements")
 @RequiredArgsConstructor
 public class AnnouncementController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FLUSH_EVERY = 200;
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final AnnouncementService announcementService;
+    private final AnnouncementJsonCache announcementJsonCache;
+    private final ApplicationWriteBehind applicationWriteBehind;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<AnnouncementResponse>> list() {
-        List<AnnouncementResponse> resp = announcementService.listAll();
+    public ResponseEntity list(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        if (limit == null && cursor == null) {
+            // Validators come from the catalog row; a match answers 304 before the list is even read
+            AnnouncementCatalog catalog = announcementService.catalog();
+            if (request.checkNotModified(etag(catalog.getVersion()), catalog.getChangedAt().toEpochMilli())) {
+                return null;
+            }
+            List<byte[]> fragments = announcementJsonCache.fragments(announcementService.listAll(catalog.getVersion()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLengthLong(AnnouncementJsonCache.arrayLength(fragments));
+            AnnouncementJsonCache.writeArray(fragments, response.getOutputStream());
+            return null;
+        }
+
+        ResponseObject<PageResponse<AnnouncementResponse>> resp = announcementService.listPage(limit, cursor);
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
+        }
+        return ResponseEntity.ok(resp.body());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity search(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchAnnouncementsRequest req = new SearchAnnouncementsRequest(city, country, startDate, endDate);
+        ResponseObject<PageResponse<AnnouncementResponse>> resp = announcementService.search(req, limit, cursor);
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
+        }
+        return ResponseEntity.ok(resp.body());
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity available(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        ResponseObject<PageResponse<AnnouncementResponse>> resp = announcementService.available(from, to, limit, cursor);
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
+        }
+        return ResponseEntity.ok(resp.body());
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity facets(@RequestParam(required = false) Integer limit) {
+        AnnouncementFacetsResponse resp = announcementService.facets(limit);
         return ResponseEntity.ok(resp);
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity nearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit
+    ) {
+        ResponseObject<List<NearbyAnnouncementResponse>> resp = announcementService.nearby(lat, lon, radiusKm, limit);
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
+        }
+        return ResponseEntity.ok(resp.body());
+    }
+
+    @GetMapping("/search/text")
+    public ResponseEntity searchText(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size
+    ) {
+        ResponseObject<List<AnnouncementResponse>> resp = announcementService.searchText(query, page, size);
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
+        }
+        return ResponseEntity.ok(resp.body());
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            // Lines are separated by the sink, not by Jackson's default " " between root values
+            json.setRootValueSeparator(null);
+            try {
+                announcementService.exportOpen(new NdjsonSink(objectMapper, json));
+            } catch (UncheckedIOException e) {
+                // client went away mid-export; the read transaction is already rolled back
+                throw e.getCause();
+            }
+            json.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity get(@PathVariable Long id) {
+    public ResponseEntity get(@PathVariable Long id, WebRequest request, HttpServletResponse response) throws IOException {
         ResponseObject<AnnouncementResponse> resp = announcementService.get(id);
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error().message());
         }
-        return ResponseEntity.ok(resp.body());
+        AnnouncementResponse a = resp.body();
+        if (request.checkNotModified(etag(a.version()), a.updatedAt().toEpochMilli())) {
+            return null;
+        }
+        byte[] json = announcementJsonCache.json(a);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+        return null;
     }
 
     @PostMapping("/{id}/apply")
-    public ResponseEntity apply(@PathVariable Long id, @Valid @RequestBody ApplyAnnouncementRequest req) {
-        ResponseObject<ApplyAnnouncementResponse> resp = announcementService.apply(id, req);
+    public ResponseEntity apply(
+            @PathVariable Long id,
+            @Valid @RequestBody ApplyAnnouncementRequest req,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            ResponseObject<ApplyAcceptedResponse> accepted = idempotencyService.execute(
+                    "apply-async:" + id, idempotencyKey, req, ApplyAcceptedResponse.class,
+                    () -> applicationWriteBehind.submit(id, req));
+            if (accepted.hasError()) {
+                ResponseEntity.BodyBuilder error = ResponseEntity.status(accepted.error().status());
+                if (accepted.error().status() == HttpStatus.SERVICE_UNAVAILABLE) {
+                    error.header(HttpHeaders.RETRY_AFTER, "1");
+                }
+                return error.body(accepted.error().message());
+            }
+            return ResponseEntity.accepted()
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(accepted.body());
+        }
+
+        ResponseObject<ApplyAnnouncementResponse> resp = idempotencyService.execute(
+                "apply:" + id, idempotencyKey, req, ApplyAnnouncementResponse.class,
+                () -> announcementService.apply(id, req));
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error().message());
         }
@@ -45,16 +208,15 @@ public class AnnouncementController {
     @PreAuthorize("hasAuthority('OWNER') or hasRole('OWNER')")
     @PostMapping
     public ResponseEntity create(
-            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
-            @Valid @RequestBody CreateAnnouncementRequest req
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody CreateAnnouncementRequest req,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ) {
-        if (authorization == null || !authorization.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Missing or invalid Authorization header");
-        }
-        String token = authorization.substring(7);
-
-        ResponseObject<CreateAnnouncementResponse> resp = announcementService.create(token, req);
+        // Keys are per owner, so two owners picking the same key never see each other's result
+        ResponseObject<CreateAnnouncementResponse> resp = idempotencyKey == null
+                ? announcementService.create(user, req)
+                : idempotencyService.execute("create:" + user.id(), idempotencyKey, req, CreateAnnouncementResponse.class,
+                        () -> announcementService.create(user, req));
 
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error());
@@ -68,16 +230,10 @@ public class AnnouncementController {
     @PreAuthorize("hasAuthority('ADMIN') or hasRole('ADMIN') or hasAuthority('OWNER') or hasRole('OWNER')")
     @DeleteMapping("/{id}")
     public ResponseEntity delete(
-            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable Long id
     ) {
-        if (authorization == null || !authorization.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Missing or invalid Authorization header");
-        }
-        String token = authorization.substring(7);
-
-        ResponseObject<DeleteAnnouncementResponse> resp = announcementService.delete(token, id);
+        ResponseObject<DeleteAnnouncementResponse> resp = announcementService.delete(user, id);
 
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error().message());
@@ -89,17 +245,11 @@ public class AnnouncementController {
     @PreAuthorize("hasAuthority('ADMIN') or hasRole('ADMIN')")
     @PatchMapping("/{id}/moderate")
     public ResponseEntity moderate(
-            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable Long id,
             @RequestBody ModerateAnnouncementRequest req
     ) {
-        if (authorization == null || !authorization.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Missing or invalid Authorization header");
-        }
-        String token = authorization.substring(7);
-
-        ResponseObject<ModerateAnnouncementResponse> resp = announcementService.moderate(token, id, req.status());
+        ResponseObject<ModerateAnnouncementResponse> resp = announcementService.moderate(user, id, req.status());
 
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error().message());
@@ -111,38 +261,101 @@ public class AnnouncementController {
     @PreAuthorize("hasAuthority('ADMIN') or hasRole('ADMIN')")
     @PostMapping("/close-expired")
     public ResponseEntity closeExpired(
-            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        if (authorization == null || !authorization.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Missing or invalid Authorization header");
+        ResponseObject<CloseExpiredAnnouncementsResponse> resp = announcementService.closeExpired(user);
+
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
         }
-        String token = authorization.substring(7);
 
-        ResponseObject<CloseExpiredAnnouncementsResponse> resp = announcementService.closeExpired(token);
+        return ResponseEntity.ok(resp.body());
+    }
 
+    @PreAuthorize("hasAuthority('ADMIN') or hasRole('ADMIN')")
+    @GetMapping("/archive")
+    public ResponseEntity listArchived(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        ResponseObject<PageResponse<AnnouncementResponse>> resp = announcementService.listArchived(user, limit, cursor);
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error().message());
         }
+        return ResponseEntity.ok(resp.body());
+    }
 
+    @PreAuthorize("hasAuthority('ADMIN') or hasRole('ADMIN')")
+    @GetMapping("/archive/{id}")
+    public ResponseEntity getArchived(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable Long id
+    ) {
+        ResponseObject<ArchivedAnnouncementResponse> resp = announcementService.getArchived(user, id);
+        if (resp.hasError()) {
+            return ResponseEntity.status(resp.error().status()).body(resp.error().message());
+        }
         return ResponseEntity.ok(resp.body());
     }
 
     @PreAuthorize("hasAuthority('OWNER') or hasRole('OWNER') or hasAuthority('ADMIN') or hasRole('ADMIN')")
     @GetMapping("/applications")
     public ResponseEntity listApplications(
-            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) Long announcementId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
     ) {
-        if (authorization == null || !authorization.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Missing or invalid Authorization header");
+        if (announcementId != null || limit != null || cursor != null) {
+            ResponseObject<PageResponse<AnnouncementApplicationResponse>> page =
+                    announcementService.applicationsPage(user, announcementId, limit, cursor);
+            if (page.hasError()) {
+                return ResponseEntity.status(page.error().status()).body(page.error().message());
+            }
+            return ResponseEntity.ok(page.body());
         }
-        String token = authorization.substring(7);
 
-        ResponseObject<List<AnnouncementApplicationResponse>> resp = announcementService.listApplicationsForOwner(token);
+        ResponseObject<List<AnnouncementApplicationResponse>> resp = announcementService.listApplicationsForOwner(user);
         if (resp.hasError()) {
             return ResponseEntity.status(resp.error().status()).body(resp.error().message());
         }
         return ResponseEntity.ok(resp.body());
     }
+
+    // Change versions come from one sequence, so the number alone is a strong validator
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Writes one JSON document per line and pushes bytes to the client every
+     * {@link #EXPORT_FLUSH_EVERY} rows instead of waiting for the buffers to fill.
+     */
+    private static final class NdjsonSink implements Consumer<AnnouncementResponse> {
+        private final ObjectWriter writer;
+        private final JsonGenerator json;
+        private int unflushed;
+
+        private NdjsonSink(ObjectMapper objectMapper, JsonGenerator json) {
+            // The mapper flushes after every value by default, which would defeat the batching below
+            this.writer = objectMapper.writerFor(AnnouncementResponse.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.json = json;
+        }
+
+        @Override
+        public void accept(AnnouncementResponse announcement) {
+            try {
+                writer.writeValue(json, announcement);
+                json.writeRaw('\n');
+                if (++unflushed == EXPORT_FLUSH_EVERY) {
+                    json.flush();
+                    unflushed = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
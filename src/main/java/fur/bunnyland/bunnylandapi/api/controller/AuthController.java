@@ -1,11 +1,15 @@
 package fur.bunnyland.bunnylandapi.api.controller;
 
 import fur.bunnyland.bunnylandapi.api.dto.*;
+import fur.bunnyland.bunnylandapi.domain.MessageError;
 import fur.bunnyland.bunnylandapi.domain.ResponseObject;
+import fur.bunnyland.bunnylandapi.security.AuthenticatedUser;
 import fur.bunnyland.bunnylandapi.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -21,7 +25,7 @@ public class AuthController {
     public ResponseEntity register(@Valid @RequestBody RegisterRequest request) {
         ResponseObject<RegisterResponse> registerResponse = userService.registerOwner(request);
         if (registerResponse.hasError()) {
-           return new ResponseEntity<>(registerResponse.error().message(), registerResponse.error().status());
+           return error(registerResponse.error());
         }
         return ResponseEntity.status(HttpStatus.CREATED).body(registerResponse.body());
     }
@@ -30,7 +34,7 @@ public class AuthController {
     public ResponseEntity login(@Valid @RequestBody LoginRequest req) {
         ResponseObject<LoginResponse> loginResponse = userService.login(req);
         if (loginResponse.hasError()) {
-            return new ResponseEntity<>(loginResponse.error().message(), loginResponse.error().status());
+            return error(loginResponse.error());
         }
         return ResponseEntity.ok(ResponseObject.ok(loginResponse));
     }
@@ -44,17 +48,33 @@ public class AuthController {
         return ResponseEntity.ok(ResponseObject.ok(refreshResponse));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity logout(@Valid @RequestBody RefreshRequest req) {
+        ResponseObject<Void> logoutResponse = userService.logout(req);
+        if (logoutResponse.hasError()) {
+            return new ResponseEntity<>(logoutResponse.error().message(), logoutResponse.error().status());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
-    public ResponseEntity me(@RequestHeader(value = "Authorization", required = false) String authorization) {
-        if (authorization == null || !authorization.startsWith("Bearer ")) {
+    public ResponseEntity me(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
             return new ResponseEntity<>("Missing or invalid Authorization header", HttpStatus.UNAUTHORIZED);
         }
-        String token = authorization.substring(7);
-        ResponseObject<ProfileResponse> resp = userService.me(token);
+        ResponseObject<ProfileResponse> resp = userService.me(user);
         if (resp.hasError()) {
             return new ResponseEntity<>(resp.error().message(), resp.error().status());
         }
         return ResponseEntity.ok(resp.body());
     }
-}
 
+    // 503 comes from the saturated password-hashing pool; tell the client when to come back
+    private static ResponseEntity error(MessageError error) {
+        HttpHeaders headers = new HttpHeaders();
+        if (error.status() == HttpStatus.SERVICE_UNAVAILABLE) {
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return new ResponseEntity<>(error.message(), headers, error.status());
+    }
+}
@@ -0,0 +1,8 @@
+package fur.bunnyland.bunnylandapi.api.dto;
+
+import java.util.List;
+
+public record PageResponse<T>(
+        List<T> items,
+        String next
+) {}
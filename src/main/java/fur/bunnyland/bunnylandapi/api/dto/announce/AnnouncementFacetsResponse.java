@@ -0,0 +1,9 @@
+package fur.bunnyland.bunnylandapi.api.dto.announce;
+
+import java.util.List;
+
+public record AnnouncementFacetsResponse(
+        List<FacetCount> cities,
+        List<FacetCount> countries,
+        List<FacetCount> statuses
+) {}
@@ -13,5 +13,8 @@ public record AnnouncementResponse(
         LocalDate startDate,
         LocalDate endDate,
         String status,
-        Instant createdAt
+        Instant createdAt,
+        Long version,
+        Instant updatedAt,
+        Integer applicationCount
 ) {}
\ No newline at end of file
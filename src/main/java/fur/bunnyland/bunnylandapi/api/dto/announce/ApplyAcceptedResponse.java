@@ -0,0 +1,13 @@
+package fur.bunnyland.bunnylandapi.api.dto.announce;
+
+import java.time.Instant;
+
+/**
+ * Answer to a buffered apply: {@code id} is the id the application will be stored under.
+ */
+public record ApplyAcceptedResponse(
+        Long id,
+        Long announcementId,
+        Instant createdAt
+) {
+}
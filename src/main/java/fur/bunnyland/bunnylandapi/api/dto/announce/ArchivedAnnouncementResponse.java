@@ -0,0 +1,11 @@
+package fur.bunnyland.bunnylandapi.api.dto.announce;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ArchivedAnnouncementResponse(
+        AnnouncementResponse announcement,
+        Instant archivedAt,
+        List<AnnouncementApplicationResponse> applications
+) {
+}
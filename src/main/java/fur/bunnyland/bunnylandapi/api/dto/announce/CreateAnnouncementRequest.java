@@ -1,5 +1,7 @@
 package fur.bunnyland.bunnylandapi.api.dto.announce;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -11,5 +13,13 @@ public record CreateAnnouncementRequest(
         @Size(max = 120) String city,
         @Size(max = 120) String country,
         LocalDate startDate,
-        LocalDate endDate
-) {}
+        LocalDate endDate,
+        // Optional; when absent the city's coordinates are looked up
+        @DecimalMin("-90") @DecimalMax("90") Double latitude,
+        @DecimalMin("-180") @DecimalMax("180") Double longitude
+) {
+    public CreateAnnouncementRequest(String title, String description, String city, String country,
+                                     LocalDate startDate, LocalDate endDate) {
+        this(title, description, city, country, startDate, endDate, null, null);
+    }
+}
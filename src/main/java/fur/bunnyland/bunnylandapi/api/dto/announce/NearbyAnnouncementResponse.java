@@ -0,0 +1,6 @@
+package fur.bunnyland.bunnylandapi.api.dto.announce;
+
+public record NearbyAnnouncementResponse(
+        AnnouncementResponse announcement,
+        double distanceKm
+) {}
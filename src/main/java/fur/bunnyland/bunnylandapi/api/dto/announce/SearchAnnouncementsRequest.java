@@ -0,0 +1,10 @@
+package fur.bunnyland.bunnylandapi.api.dto.announce;
+
+import java.time.LocalDate;
+
+public record SearchAnnouncementsRequest(
+        String city,
+        String country,
+        LocalDate startDate,
+        LocalDate endDate
+) {}
@@ -0,0 +1,44 @@
+package fur.bunnyland.bunnylandapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fur.bunnyland.bunnylandapi.service.AnnouncementJsonCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ANNOUNCEMENTS = "announcements";
+    public static final String ANNOUNCEMENT_LISTS = "announcementLists";
+    public static final String ANNOUNCEMENT_JSON = "announcementJson";
+    public static final String IDEMPOTENCY_KEYS = "idempotencyKeys";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.announcements.spec}") String announcementsSpec,
+            @Value("${cache.announcement-lists.spec}") String listsSpec,
+            @Value("${cache.announcement-json.spec}") String jsonSpec,
+            @Value("${cache.idempotency-keys.spec}") String idempotencySpec
+    ) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        // Static manager: an unknown cache name fails instead of silently creating an unbounded cache
+        caffeine.setCacheNames(List.of());
+        caffeine.registerCustomCache(ANNOUNCEMENTS, Caffeine.from(announcementsSpec).build());
+        caffeine.registerCustomCache(ANNOUNCEMENT_LISTS, Caffeine.from(listsSpec).build());
+        // Bounded by bytes rather than entries: descriptions vary a lot in length
+        caffeine.registerCustomCache(ANNOUNCEMENT_JSON, Caffeine.from(jsonSpec)
+                .weigher((Object id, Object entry) -> ((AnnouncementJsonCache.Entry) entry).json().length)
+                .build());
+        caffeine.registerCustomCache(IDEMPOTENCY_KEYS, Caffeine.from(idempotencySpec).build());
+        // Evictions issued inside a transaction are deferred until it commits
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
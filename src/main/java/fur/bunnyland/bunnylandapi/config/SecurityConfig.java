@@ -1,34 +1,45 @@
 package fur.bunnyland.bunnylandapi.config;
 
+import fur.bunnyland.bunnylandapi.security.JwtAuthenticationFilter;
+import fur.bunnyland.bunnylandapi.security.JwtProperties;
+import fur.bunnyland.bunnylandapi.security.JwtUtil;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@EnableMethodSecurity
+@EnableConfigurationProperties(JwtProperties.class)
 public class SecurityConfig {
 
         @Bean
-        public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil) throws Exception {
                 http
                         .csrf(csrf -> csrf.disable())
+                        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                         .authorizeHttpRequests(authorize -> authorize
                                 .requestMatchers("/api/health",
                                         "/api/auth/**",
                                         "/api/users/me",
                                         "/api/announcements/**",
+                                        "/actuator/health",
                                         "/swagger-ui/**",
                                         "/v3/api-docs/**").permitAll()
+                                // Cache, auth and JVM internals; not for anonymous callers
+                                .requestMatchers("/actuator/metrics/**").hasAuthority("ADMIN")
                                 .anyRequest().authenticated())
+                        // Method-level @PreAuthorize rules decide per endpoint; anonymous callers get 401, not 403
+                        .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                        .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class)
                         .httpBasic(h -> h.disable());
             //        http.httpBasic(Customizer.withDefaults()); // optional; JWT handles auth
             return http.build();
         }
-
-        @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
-        }
 }
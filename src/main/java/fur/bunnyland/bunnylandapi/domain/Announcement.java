@@ -1,14 +1,100 @@
 package fur.bunnyland.bunnylandapi.domain;
 
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
 import jakarta.persistence.*;
+
 import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "announcements")
+@SqlResultSetMapping(name = "AnnouncementResponse", classes = @ConstructorResult(
+        targetClass = AnnouncementResponse.class,
+        columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "owner_id", type = Long.class),
+                @ColumnResult(name = "title", type = String.class),
+                @ColumnResult(name = "description", type = String.class),
+                @ColumnResult(name = "city", type = String.class),
+                @ColumnResult(name = "country", type = String.class),
+                @ColumnResult(name = "start_date", type = LocalDate.class),
+                @ColumnResult(name = "end_date", type = LocalDate.class),
+                @ColumnResult(name = "status", type = String.class),
+                @ColumnResult(name = "created_at", type = Instant.class),
+                @ColumnResult(name = "change_version", type = Long.class),
+                @ColumnResult(name = "updated_at", type = Instant.class),
+                @ColumnResult(name = "application_count", type = Integer.class)
+        }))
+// Rows come back as Object[] {AnnouncementResponse, distance_km}
+@SqlResultSetMapping(name = "NearbyAnnouncement",
+        classes = @ConstructorResult(
+                targetClass = AnnouncementResponse.class,
+                columns = {
+                        @ColumnResult(name = "id", type = Long.class),
+                        @ColumnResult(name = "owner_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "description", type = String.class),
+                        @ColumnResult(name = "city", type = String.class),
+                        @ColumnResult(name = "country", type = String.class),
+                        @ColumnResult(name = "start_date", type = LocalDate.class),
+                        @ColumnResult(name = "end_date", type = LocalDate.class),
+                        @ColumnResult(name = "status", type = String.class),
+                        @ColumnResult(name = "created_at", type = Instant.class),
+                        @ColumnResult(name = "change_version", type = Long.class),
+                        @ColumnResult(name = "updated_at", type = Instant.class),
+                        @ColumnResult(name = "application_count", type = Integer.class)
+                }),
+        columns = @ColumnResult(name = "distance_km", type = Double.class))
+@NamedNativeQuery(name = "Announcement.searchText", resultSetMapping = "AnnouncementResponse", query = """
+        select a.id, a.owner_id, a.title, a.description, a.city, a.country,
+               a.start_date, a.end_date, a.status, a.created_at, a.change_version, a.updated_at,
+               a.application_count
+        from announcements a, websearch_to_tsquery('english', :query) q
+        where a.status = 'OPEN' and a.search_vector @@ q
+        order by ts_rank(a.search_vector, q) desc, a.id desc
+        limit :limit offset :offset""")
+// availability && ... is served by the partial GiST index idx_ann_open_availability
+@NamedNativeQuery(name = "Announcement.findAvailableFirstPage", resultSetMapping = "AnnouncementResponse", query = """
+        select a.id, a.owner_id, a.title, a.description, a.city, a.country,
+               a.start_date, a.end_date, a.status, a.created_at, a.change_version, a.updated_at,
+               a.application_count
+        from announcements a
+        where a.status = 'OPEN' and a.availability && daterange(:from, :to, '[]')
+        order by a.created_at desc, a.id desc
+        limit :limit""")
+@NamedNativeQuery(name = "Announcement.findAvailableAfter", resultSetMapping = "AnnouncementResponse", query = """
+        select a.id, a.owner_id, a.title, a.description, a.city, a.country,
+               a.start_date, a.end_date, a.status, a.created_at, a.change_version, a.updated_at,
+               a.application_count
+        from announcements a
+        where a.status = 'OPEN' and a.availability && daterange(:from, :to, '[]')
+          and (a.created_at, a.id) < (:createdAt, :id)
+        order by a.created_at desc, a.id desc
+        limit :limit""")
+// The latitude/longitude box is the index-backed prefilter; the haversine distance trims its corners
+@NamedNativeQuery(name = "Announcement.findNearby", resultSetMapping = "NearbyAnnouncement", query = """
+        select * from (
+            select a.id, a.owner_id, a.title, a.description, a.city, a.country,
+                   a.start_date, a.end_date, a.status, a.created_at, a.change_version, a.updated_at,
+                   a.application_count,
+                   6371.0088 * 2 * asin(sqrt(
+                       power(sin(radians(a.latitude - :lat) / 2), 2)
+                       + cos(radians(:lat)) * cos(radians(a.latitude)) * power(sin(radians(a.longitude - :lon) / 2), 2)
+                   )) as distance_km
+            from announcements a
+            where a.status = 'OPEN'
+              and a.latitude between :minLat and :maxLat
+              and a.longitude between :minLon and :maxLon
+        ) n
+        where n.distance_km <= :radiusKm
+        order by n.distance_km, n.id
+        limit :limit""")
 public class Announcement {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Must match the sequence increment set in V17
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "announcements_id_seq")
+    @SequenceGenerator(name = "announcements_id_seq", sequenceName = "announcements_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false) @JoinColumn(name = "owner_id")
@@ -26,12 +112,26 @@ public class Announcement {
     private LocalDate startDate;
     private LocalDate endDate;
 
+    private Double latitude;
+    private Double longitude;
+
     @Column(nullable = false, length = 20)
     private String status = AnnouncementStatus.OPEN.name();
 
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
+    // Stamped by the trg_announcements_touch trigger on every insert and update
+    @Column(insertable = false, updatable = false)
+    private Long changeVersion;
+
+    @Column(insertable = false, updatable = false)
+    private Instant updatedAt;
+
+    // Maintained by triggers on announcement_applications (see V18)
+    @Column(insertable = false, updatable = false)
+    private Integer applicationCount;
+
     // getters/setters
 
     public Long getId() {
@@ -98,6 +198,22 @@ public class Announcement {
         this.endDate = endDate;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -113,4 +229,16 @@ public class Announcement {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Integer getApplicationCount() {
+        return applicationCount;
+    }
 }
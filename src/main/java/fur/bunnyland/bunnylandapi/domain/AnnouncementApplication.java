@@ -8,7 +8,9 @@ import java.time.Instant;
 public class AnnouncementApplication {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "announcement_applications_id_seq")
+    @SequenceGenerator(name = "announcement_applications_id_seq", sequenceName = "announcement_applications_id_seq",
+            allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)@JoinColumn(name = "announcement_id")
@@ -23,6 +25,13 @@ public class AnnouncementApplication {
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
+    // Copied from the announcement by trigger (see V16); read-only here
+    @Column(insertable = false, updatable = false)
+    private Long ownerId;
+
+    @Column(insertable = false, updatable = false, length = 20)
+    private String announcementStatus;
+
     public Long getId() {
         return id;
     }
@@ -62,4 +71,12 @@ public class AnnouncementApplication {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public String getAnnouncementStatus() {
+        return announcementStatus;
+    }
 }
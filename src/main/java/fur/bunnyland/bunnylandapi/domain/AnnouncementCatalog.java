@@ -0,0 +1,39 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Version of the whole announcements table, read from the announcement_catalog view: a folded base
+ * plus one change row per committed transaction that wrote to announcements (see V23).
+ */
+@Entity
+@Immutable
+@Table(name = "announcement_catalog")
+public class AnnouncementCatalog {
+
+    public static final short ID = 1;
+
+    @Id
+    private Short id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    public Short getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
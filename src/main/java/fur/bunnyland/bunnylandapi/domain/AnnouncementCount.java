@@ -0,0 +1,37 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * Number of announcements per (status, city, country), maintained by the
+ * announcement_counts_apply trigger. Missing city or country is stored as ''.
+ */
+@Entity
+@Immutable
+@Table(name = "announcement_counts")
+public class AnnouncementCount {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private Long announcements;
+
+    public Key getId() {
+        return id;
+    }
+
+    public Long getAnnouncements() {
+        return announcements;
+    }
+
+    @Embeddable
+    public record Key(
+            @Column(length = 20) String status,
+            @Column(length = 120) String city,
+            @Column(length = 120) String country
+    ) implements Serializable {}
+}
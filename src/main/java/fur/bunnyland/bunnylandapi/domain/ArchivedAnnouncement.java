@@ -0,0 +1,124 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Announcement moved out of the live table by {@code AnnouncementArchiveJob}; read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "announcements_archive")
+public class ArchivedAnnouncement {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String description;
+
+    @Column(length = 120)
+    private String city;
+
+    @Column(length = 120)
+    private String country;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Column(nullable = false)
+    private Long changeVersion;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Integer applicationCount;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Integer getApplicationCount() {
+        return applicationCount;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
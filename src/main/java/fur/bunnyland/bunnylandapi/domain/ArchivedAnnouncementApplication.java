@@ -0,0 +1,47 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+@Entity
+@Immutable
+@Table(name = "announcement_applications_archive")
+public class ArchivedAnnouncementApplication {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long announcementId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String message;
+
+    @Column(nullable = false, length = 200)
+    private String contact;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAnnouncementId() {
+        return announcementId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getContact() {
+        return contact;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,48 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Seeded city centre coordinates, used to place announcements created without explicit coordinates.
+ */
+@Entity
+@Immutable
+@Table(name = "city_coordinates")
+public class CityCoordinates {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 120)
+    private String city;
+
+    @Column(nullable = false, length = 120)
+    private String country;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+}
@@ -2,12 +2,22 @@ package fur.bunnyland.bunnylandapi.domain;
 
 public enum ErrorCode {
     INVALID_DATES(400),
+    INVALID_CURSOR(400),
+    INVALID_SEARCH_QUERY(400),
+    INVALID_PAGE(400),
+    INVALID_LOCATION(400),
+    INVALID_IDEMPOTENCY_KEY(400),
     USER_NOT_FOUND(401),
     INVALID_CREDENTIALS(401),
     INVALID_REFRESH_TOKEN(401),
     FORBIDDEN(403),
     ANNOUNCEMENT_NOT_FOUND(404),
     EMAIL_TAKEN(409),
+    EXPIRY_IN_PROGRESS(409),
+    IDEMPOTENCY_IN_PROGRESS(409),
+    IDEMPOTENCY_KEY_REUSED(422),
+    APPLY_QUEUE_FULL(503),
+    SERVICE_BUSY(503),
     INTERNAL_SERVER_ERROR(505);
 
     ErrorCode(Integer status) {
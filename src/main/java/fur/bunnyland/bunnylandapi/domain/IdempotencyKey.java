@@ -0,0 +1,58 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Stored outcome of a request sent with an {@code Idempotency-Key} header; written through
+ * {@code IdempotencyKeyRepository}. {@code response} stays null while the first request runs.
+ */
+@Entity
+@Immutable
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+
+    @EmbeddedId
+    private Id id;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(columnDefinition = "text")
+    private String response;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public Id getId() {
+        return id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Embeddable
+    public record Id(
+            @Column(length = 100) String scope,
+            @Column(length = 255) String idempotencyKey
+    ) implements Serializable {}
+}
@@ -0,0 +1,37 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Lease row of a scheduled job; see {@code JobLockRepository} for how it is taken and released.
+ */
+@Entity
+@Immutable
+@Table(name = "job_locks")
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(length = 128)
+    private String lockedBy;
+
+    @Column(nullable = false)
+    private Instant lockedUntil;
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+}
@@ -0,0 +1,63 @@
+package fur.bunnyland.bunnylandapi.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Issued refresh token, keyed by the token's jti; written through {@code RefreshTokenRepository}.
+ */
+@Entity
+@Immutable
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    private UUID jti;
+
+    @Column(nullable = false)
+    private UUID familyId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant usedAt;
+
+    private Instant revokedAt;
+
+    public UUID getJti() {
+        return jti;
+    }
+
+    public UUID getFamilyId() {
+        return familyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -1,11 +1,69 @@
 package fur.bunnyland.bunnylandapi.repository;
 
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementApplicationResponse;
 import fur.bunnyland.bunnylandapi.domain.AnnouncementApplication;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface AnnouncementApplicationRepository extends JpaRepository<AnnouncementApplication, Long> {
     List<AnnouncementApplication> findByAnnouncementOwnerId(Long ownerId);
-    List<AnnouncementApplication> findByAnnouncementOwnerIdAndAnnouncementStatus(Long ownerId, String status);
+
+    // Scalar projection over announcement_applications alone: owner and status are copied onto each row,
+    // and app.announcement.id reads the foreign key column, so neither announcements nor EAGER associations are touched
+    String RESPONSE = """
+            new fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementApplicationResponse(
+                app.id, app.announcement.id, app.message, app.contact, app.createdAt)""";
+
+    @Query("select " + RESPONSE + """
+             from AnnouncementApplication app
+            where app.ownerId = :ownerId and app.announcementStatus = :status""")
+    List<AnnouncementApplicationResponse> findResponsesByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                                          @Param("status") String status);
+
+    // Range scan on idx_app_owner_inbox
+    @Query("select " + RESPONSE + """
+             from AnnouncementApplication app
+            where app.ownerId = :ownerId and app.announcementStatus = :status
+            order by app.createdAt desc, app.id desc""")
+    List<AnnouncementApplicationResponse> findInboxFirstPage(@Param("ownerId") Long ownerId,
+                                                             @Param("status") String status,
+                                                             Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from AnnouncementApplication app
+            where app.ownerId = :ownerId and app.announcementStatus = :status
+              and (app.createdAt, app.id) < (:createdAt, :id)
+            order by app.createdAt desc, app.id desc""")
+    List<AnnouncementApplicationResponse> findInboxPageAfter(@Param("ownerId") Long ownerId,
+                                                             @Param("status") String status,
+                                                             @Param("createdAt") Instant createdAt,
+                                                             @Param("id") Long id,
+                                                             Limit limit);
+
+    // One announcement: range scan on idx_app_announcement_created, owner and status checked on the same rows
+    @Query("select " + RESPONSE + """
+             from AnnouncementApplication app
+            where app.announcement.id = :announcementId and app.ownerId = :ownerId and app.announcementStatus = :status
+            order by app.createdAt desc, app.id desc""")
+    List<AnnouncementApplicationResponse> findInboxFirstPage(@Param("ownerId") Long ownerId,
+                                                             @Param("status") String status,
+                                                             @Param("announcementId") Long announcementId,
+                                                             Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from AnnouncementApplication app
+            where app.announcement.id = :announcementId and app.ownerId = :ownerId and app.announcementStatus = :status
+              and (app.createdAt, app.id) < (:createdAt, :id)
+            order by app.createdAt desc, app.id desc""")
+    List<AnnouncementApplicationResponse> findInboxPageAfter(@Param("ownerId") Long ownerId,
+                                                             @Param("status") String status,
+                                                             @Param("announcementId") Long announcementId,
+                                                             @Param("createdAt") Instant createdAt,
+                                                             @Param("id") Long id,
+                                                             Limit limit);
 }
@@ -0,0 +1,29 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.domain.AnnouncementCatalog;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface AnnouncementCatalogRepository extends Repository<AnnouncementCatalog, Short> {
+
+    Optional<AnnouncementCatalog> findById(Short id);
+
+    // Moves committed change rows into the base in one statement, so the catalog version never moves;
+    // changes of transactions still running are invisible here and stay for the next fold
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with folded as (
+                delete from announcement_catalog_changes
+                returning changed_at
+            )
+            update announcement_catalog_base
+               set version    = version + (select count(*) from folded),
+                   changed_at = greatest(changed_at, (select max(changed_at) from folded))
+             where id = 1 and exists (select 1 from folded)""", nativeQuery = true)
+    int fold();
+}
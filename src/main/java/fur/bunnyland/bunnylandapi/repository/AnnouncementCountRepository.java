@@ -0,0 +1,40 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.api.dto.announce.FacetCount;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementCount;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AnnouncementCountRepository extends Repository<AnnouncementCount, AnnouncementCount.Key> {
+
+    @Query("""
+            select new fur.bunnyland.bunnylandapi.api.dto.announce.FacetCount(c.id.city, sum(c.announcements))
+            from AnnouncementCount c
+            where c.id.status = :status and c.id.city <> ''
+            group by c.id.city
+            having sum(c.announcements) > 0
+            order by sum(c.announcements) desc, c.id.city""")
+    List<FacetCount> countByCity(@Param("status") String status, Limit limit);
+
+    @Query("""
+            select new fur.bunnyland.bunnylandapi.api.dto.announce.FacetCount(c.id.country, sum(c.announcements))
+            from AnnouncementCount c
+            where c.id.status = :status and c.id.country <> ''
+            group by c.id.country
+            having sum(c.announcements) > 0
+            order by sum(c.announcements) desc, c.id.country""")
+    List<FacetCount> countByCountry(@Param("status") String status, Limit limit);
+
+    @Query("""
+            select new fur.bunnyland.bunnylandapi.api.dto.announce.FacetCount(c.id.status, sum(c.announcements))
+            from AnnouncementCount c
+            where c.id.status <> :excludedStatus
+            group by c.id.status
+            having sum(c.announcements) > 0
+            order by c.id.status""")
+    List<FacetCount> countByStatus(@Param("excludedStatus") String excludedStatus);
+}
@@ -1,13 +1,92 @@
 package fur.bunnyland.bunnylandapi.repository;
 
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
 import fur.bunnyland.bunnylandapi.domain.Announcement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AnnouncementRepository extends JpaRepository<Announcement, Long> {
-    List<Announcement> findByStatus(String status);
+public interface AnnouncementRepository extends JpaRepository<Announcement, Long>, AnnouncementSearchRepository {
 
-    List<Announcement> findByStatusAndEndDateBefore(String status, LocalDate endDate);
+    // Read paths select straight into the DTO: no owner/roles fetch, nothing in the persistence context
+    String RESPONSE = """
+            new fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse(
+                a.id, a.owner.id, a.title, a.description, a.city, a.country,
+                a.startDate, a.endDate, a.status, a.createdAt, a.changeVersion, a.updatedAt,
+                a.applicationCount)""";
+
+    @Query("select " + RESPONSE + " from Announcement a where a.status = :status")
+    List<AnnouncementResponse> findResponsesByStatus(@Param("status") String status);
+
+    @Query("select " + RESPONSE + " from Announcement a where a.id = :id and a.status <> :excludedStatus")
+    Optional<AnnouncementResponse> findResponseById(@Param("id") Long id,
+                                                    @Param("excludedStatus") String excludedStatus);
+
+    @Query("select " + RESPONSE + " from Announcement a where a.status = :status order by a.createdAt desc, a.id desc")
+    List<AnnouncementResponse> findFirstPage(@Param("status") String status, Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from Announcement a
+            where a.status = :status and (a.createdAt, a.id) < (:createdAt, :id)
+            order by a.createdAt desc, a.id desc""")
+    List<AnnouncementResponse> findPageAfter(@Param("status") String status,
+                                             @Param("createdAt") Instant createdAt,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    // Cursor-backed: Postgres only honours the fetch size inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select " + RESPONSE + " from Announcement a where a.status = :status order by a.id")
+    Stream<AnnouncementResponse> streamByStatus(@Param("status") String status);
+
+    // One bounded chunk per call and per transaction; literal 'OPEN' so idx_ann_open_end_date applies.
+    // Rows a concurrent writer holds are skipped and picked up by a later run.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update announcements set status = 'CLOSED'
+            where id in (
+                select id from announcements
+                where status = 'OPEN' and end_date < :today
+                limit :chunkSize
+                for update skip locked)""", nativeQuery = true)
+    int closeExpiredChunk(@Param("today") LocalDate today, @Param("chunkSize") int chunkSize);
+
+    // Native (tsvector operators); declared as Announcement.searchText so it can use the DTO result mapping
+    List<AnnouncementResponse> searchText(@Param("query") String query,
+                                          @Param("limit") int limit,
+                                          @Param("offset") int offset);
+
+    // Native (daterange overlap); declared on Announcement next to searchText
+    List<AnnouncementResponse> findAvailableFirstPage(@Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to,
+                                                      @Param("limit") int limit);
+
+    // Native (bounding box + haversine); declared on Announcement, rows are {AnnouncementResponse, Double distanceKm}
+    List<Object[]> findNearby(@Param("lat") double lat,
+                              @Param("lon") double lon,
+                              @Param("minLat") double minLat,
+                              @Param("maxLat") double maxLat,
+                              @Param("minLon") double minLon,
+                              @Param("maxLon") double maxLon,
+                              @Param("radiusKm") double radiusKm,
+                              @Param("limit") int limit);
+
+    List<AnnouncementResponse> findAvailableAfter(@Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to,
+                                                  @Param("createdAt") Instant createdAt,
+                                                  @Param("id") Long id,
+                                                  @Param("limit") int limit);
 }
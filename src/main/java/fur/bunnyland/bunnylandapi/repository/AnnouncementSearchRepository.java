@@ -0,0 +1,12 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import fur.bunnyland.bunnylandapi.domain.Announcement;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface AnnouncementSearchRepository {
+    List<AnnouncementResponse> search(Specification<Announcement> spec, Sort sort, int limit);
+}
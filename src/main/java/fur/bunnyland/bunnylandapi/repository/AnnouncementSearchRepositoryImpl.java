@@ -0,0 +1,48 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import fur.bunnyland.bunnylandapi.domain.Announcement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+class AnnouncementSearchRepositoryImpl implements AnnouncementSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AnnouncementResponse> search(Specification<Announcement> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AnnouncementResponse> query = cb.createQuery(AnnouncementResponse.class);
+        Root<Announcement> a = query.from(Announcement.class);
+
+        query.select(cb.construct(AnnouncementResponse.class,
+                a.get("id"),
+                a.get("owner").get("id"),
+                a.get("title"),
+                a.get("description"),
+                a.get("city"),
+                a.get("country"),
+                a.get("startDate"),
+                a.get("endDate"),
+                a.get("status"),
+                a.get("createdAt"),
+                a.get("changeVersion"),
+                a.get("updatedAt"),
+                a.get("applicationCount")));
+        query.where(spec.toPredicate(a, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, a, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
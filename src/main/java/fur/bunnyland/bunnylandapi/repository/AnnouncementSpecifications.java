@@ -0,0 +1,50 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.domain.Announcement;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Building blocks for announcement search. Each one maps onto a column of the
+ * {@code idx_ann_status_*} indexes, so keep them in sync with the migrations.
+ */
+public final class AnnouncementSpecifications {
+
+    private AnnouncementSpecifications() {
+    }
+
+    public static Specification<Announcement> hasStatus(String status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Announcement> inCity(String city) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("city")), city.toLowerCase(Locale.ROOT));
+    }
+
+    public static Specification<Announcement> inCountry(String country) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("country")), country.toLowerCase(Locale.ROOT));
+    }
+
+    public static Specification<Announcement> startsOnOrAfter(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("startDate"), date);
+    }
+
+    public static Specification<Announcement> endsOnOrBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("endDate"), date);
+    }
+
+    /**
+     * Keyset condition for {@code created_at desc, id desc}. The leading
+     * {@code created_at <= ?} lets Postgres seek into the index instead of filtering.
+     */
+    public static Specification<Announcement> createdBefore(Instant createdAt, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+                cb.or(
+                        cb.lessThan(root.get("createdAt"), createdAt),
+                        cb.lessThan(root.get("id"), id)));
+    }
+}
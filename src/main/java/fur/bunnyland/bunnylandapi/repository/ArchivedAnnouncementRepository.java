@@ -0,0 +1,79 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementApplicationResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import fur.bunnyland.bunnylandapi.domain.ArchivedAnnouncement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedAnnouncementRepository extends Repository<ArchivedAnnouncement, Long> {
+
+    String RESPONSE = """
+            new fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse(
+                a.id, a.ownerId, a.title, a.description, a.city, a.country,
+                a.startDate, a.endDate, a.status, a.createdAt, a.changeVersion, a.updatedAt,
+                a.applicationCount)""";
+
+    Optional<ArchivedAnnouncement> findById(Long id);
+
+    @Query("select " + RESPONSE + " from ArchivedAnnouncement a order by a.createdAt desc, a.id desc")
+    List<AnnouncementResponse> findFirstPage(Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from ArchivedAnnouncement a
+            where (a.createdAt, a.id) < (:createdAt, :id)
+            order by a.createdAt desc, a.id desc""")
+    List<AnnouncementResponse> findPageAfter(@Param("createdAt") Instant createdAt,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    @Query("""
+            select new fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementApplicationResponse(
+                app.id, app.announcementId, app.message, app.contact, app.createdAt)
+            from ArchivedAnnouncementApplication app
+            where app.announcementId = :announcementId
+            order by app.createdAt, app.id""")
+    List<AnnouncementApplicationResponse> findApplications(@Param("announcementId") Long announcementId);
+
+    /**
+     * Moves up to {@code batchSize} CLOSED/DELETED announcements last changed before {@code before},
+     * with their applications, into the archive tables in one statement. All parts read the same
+     * snapshot, so applications are copied before the cascade from the delete removes them.
+     *
+     * @return the number of announcements moved
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with moved as (
+                delete from announcements
+                 where id in (
+                    select id from announcements
+                     where status <> 'OPEN' and updated_at < :before
+                     order by updated_at
+                     limit :batchSize
+                     for update skip locked)
+                returning id, owner_id, title, description, city, country, start_date, end_date,
+                          status, created_at, latitude, longitude, change_version, updated_at, application_count
+            ), moved_applications as (
+                insert into announcement_applications_archive (id, announcement_id, message, contact, created_at)
+                select app.id, app.announcement_id, app.message, app.contact, app.created_at
+                  from announcement_applications app
+                  join moved m on m.id = app.announcement_id
+            )
+            insert into announcements_archive (id, owner_id, title, description, city, country, start_date, end_date,
+                                               status, created_at, latitude, longitude, change_version, updated_at,
+                                               application_count)
+            select id, owner_id, title, description, city, country, start_date, end_date,
+                   status, created_at, latitude, longitude, change_version, updated_at, application_count
+              from moved""", nativeQuery = true)
+    int archiveRetired(@Param("before") Instant before, @Param("batchSize") int batchSize);
+}
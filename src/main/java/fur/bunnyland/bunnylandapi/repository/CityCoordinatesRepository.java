@@ -0,0 +1,15 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.domain.CityCoordinates;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CityCoordinatesRepository extends Repository<CityCoordinates, Long> {
+
+    // lower() on both sides to hit idx_city_coordinates_name
+    @Query("select c from CityCoordinates c where lower(c.city) = lower(:city) and lower(c.country) = lower(:country)")
+    Optional<CityCoordinates> findByCityAndCountry(@Param("city") String city, @Param("country") String country);
+}
@@ -0,0 +1,54 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.domain.IdempotencyKey;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends Repository<IdempotencyKey, IdempotencyKey.Id> {
+
+    Optional<IdempotencyKey> findById(IdempotencyKey.Id id);
+
+    // 1 when the key is ours to run: new, expired, or a claim abandoned for longer than the lease
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into idempotency_keys (scope, idempotency_key, fingerprint, expires_at)
+            values (:scope, :key, :fingerprint, now() + make_interval(secs => :ttlSeconds))
+            on conflict (scope, idempotency_key) do update
+               set fingerprint = excluded.fingerprint, response = null,
+                   created_at = now(), expires_at = excluded.expires_at
+             where idempotency_keys.expires_at < now()
+                or (idempotency_keys.response is null
+                    and idempotency_keys.created_at < now() - make_interval(secs => :leaseSeconds))""",
+            nativeQuery = true)
+    int claim(@Param("scope") String scope,
+              @Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("ttlSeconds") long ttlSeconds,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update idempotency_keys set response = :response
+             where scope = :scope and idempotency_key = :key""", nativeQuery = true)
+    int complete(@Param("scope") String scope, @Param("key") String key, @Param("response") String response);
+
+    // Frees a claim whose request failed, so the client's retry can run
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from idempotency_keys
+             where scope = :scope and idempotency_key = :key and response is null""", nativeQuery = true)
+    int release(@Param("scope") String scope, @Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from idempotency_keys where expires_at < now()", nativeQuery = true)
+    int purgeExpired();
+}
@@ -0,0 +1,40 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.domain.JobLock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+public interface JobLockRepository extends Repository<JobLock, String> {
+
+    // Takes the lease when it is free or already this owner's (renewal); 0 means another run holds it
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update job_locks
+               set locked_by = :owner, locked_until = now() + make_interval(secs => :leaseSeconds)
+             where name = :name and (locked_until < now() or locked_by = :owner)""", nativeQuery = true)
+    int tryLock(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update job_locks
+               set locked_by = null, locked_until = '-infinity'
+             where name = :name and locked_by = :owner""", nativeQuery = true)
+    int unlock(@Param("name") String name, @Param("owner") String owner);
+
+    /**
+     * A lease owner for one run: the node name for operators, plus a random part so that two runs
+     * on the same node (scheduled and admin-triggered) never share, renew or release each other's lease.
+     */
+    static String runOwner() {
+        String node = ManagementFactory.getRuntimeMXBean().getName();
+        return node.substring(0, Math.min(node.length(), 90)) + "/" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,51 @@
+package fur.bunnyland.bunnylandapi.repository;
+
+import fur.bunnyland.bunnylandapi.domain.RefreshToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends Repository<RefreshToken, UUID> {
+
+    Optional<RefreshToken> findById(UUID jti);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into refresh_tokens (jti, family_id, user_id, expires_at)
+            values (:jti, :familyId, :userId, :expiresAt)""", nativeQuery = true)
+    int insert(@Param("jti") UUID jti,
+               @Param("familyId") UUID familyId,
+               @Param("userId") Long userId,
+               @Param("expiresAt") Instant expiresAt);
+
+    // 1 when the token was live and is now spent; a primary-key probe, however many sessions exist
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update refresh_tokens set used_at = now()
+             where jti = :jti and used_at is null and revoked_at is null and expires_at > now()""",
+            nativeQuery = true)
+    int markUsed(@Param("jti") UUID jti);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update refresh_tokens set revoked_at = now()
+             where family_id = :familyId and revoked_at is null""", nativeQuery = true)
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from refresh_tokens
+             where jti in (select jti from refresh_tokens where expires_at < now() limit :batchSize)""",
+            nativeQuery = true)
+    int purgeExpired(@Param("batchSize") int batchSize);
+}
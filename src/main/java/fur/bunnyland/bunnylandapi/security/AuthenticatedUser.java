@@ -0,0 +1,28 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The caller behind a verified access token. {@link JwtAuthenticationFilter} puts it into the
+ * SecurityContext; controllers take it with {@code @AuthenticationPrincipal} and hand it to services.
+ */
+public record AuthenticatedUser(Long id, String email, Set<String> roles) {
+
+    public AuthenticatedUser {
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+    }
+
+    public boolean isAdmin() {
+        return roles.contains("ADMIN");
+    }
+
+    @SuppressWarnings("unchecked")
+    static AuthenticatedUser from(Claims claims) {
+        List<String> roles = claims.get("roles", List.class);
+        return new AuthenticatedUser(claims.get("id", Long.class), claims.getSubject(),
+                roles == null ? null : Set.copyOf(roles));
+    }
+}
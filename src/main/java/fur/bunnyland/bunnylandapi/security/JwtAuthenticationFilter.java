@@ -0,0 +1,52 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies the bearer access token once per request and authenticates it as an {@link AuthenticatedUser}
+ * with one authority per role. A missing or invalid token leaves the request anonymous; whether that is
+ * allowed is up to the authorization rules.
+ * <p>
+ * Registered in {@code SecurityConfig} only, not as a bean, so it doesn't also run as a servlet filter.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)) {
+            try {
+                AuthenticatedUser user = AuthenticatedUser.from(jwtUtil.parseAccessToken(header.substring(BEARER.length())));
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                        user, null, user.roles().stream().map(SimpleGrantedAuthority::new).toList());
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Rejected access token: {}", e.getMessage());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
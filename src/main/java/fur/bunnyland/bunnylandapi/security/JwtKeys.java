@@ -0,0 +1,122 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The keys of one token type: the active key that signs, and every configured key by kid for verifying.
+ */
+final class JwtKeys {
+
+    private final String activeKid;
+    private final SignatureAlgorithm algorithm;
+    // Null on nodes configured with public keys only
+    private final Key signingKey;
+    private final Map<String, Key> verificationKeys;
+
+    private JwtKeys(String activeKid, SignatureAlgorithm algorithm, Key signingKey, Map<String, Key> verificationKeys) {
+        this.activeKid = activeKid;
+        this.algorithm = algorithm;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+    }
+
+    static JwtKeys from(String name, JwtProperties.TokenKeys config, boolean allowDevSecrets) {
+        if (config == null || config.keys().isEmpty()) {
+            throw new IllegalStateException("security.jwt." + name + ".keys must list at least one key");
+        }
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(config.algorithm().name());
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Key signingKey = null;
+        for (JwtProperties.SigningKey key : config.keys()) {
+            String where = "security.jwt." + name + " key '" + key.kid() + "'";
+            if (key.kid() == null || key.kid().isBlank()) {
+                throw new IllegalStateException("security.jwt." + name + ".keys entries need a kid");
+            }
+            Key verifying;
+            Key signing;
+            if (algorithm.isHmac()) {
+                if (key.secret() == null || key.secret().isBlank()) {
+                    throw new IllegalStateException(where + " has no secret");
+                }
+                if (!allowDevSecrets && key.secret().startsWith(JwtProperties.DEV_SECRET_PREFIX)) {
+                    throw new IllegalStateException(where + " uses a development secret; anyone could forge tokens with it");
+                }
+                byte[] secret = key.secret().getBytes(StandardCharsets.UTF_8);
+                if (secret.length < 32) {
+                    throw new IllegalStateException(where + ": HS256 secrets must be at least 32 bytes");
+                }
+                verifying = signing = Keys.hmacShaKeyFor(secret);
+            } else {
+                if (key.publicKey() == null) {
+                    throw new IllegalStateException(where + " has no public-key");
+                }
+                verifying = ecKey(where, key.publicKey(), false);
+                signing = key.privateKey() == null ? null : ecKey(where, key.privateKey(), true);
+            }
+            if (verificationKeys.put(key.kid(), verifying) != null) {
+                throw new IllegalStateException(where + " is listed twice");
+            }
+            if (key.kid().equals(config.activeKey())) {
+                signingKey = signing;
+            }
+        }
+        if (!verificationKeys.containsKey(config.activeKey())) {
+            throw new IllegalStateException("security.jwt." + name + ".active-key must name one of its keys");
+        }
+        return new JwtKeys(config.activeKey(), algorithm, signingKey, verificationKeys);
+    }
+
+    JwtBuilder sign(JwtBuilder builder) {
+        if (signingKey == null) {
+            throw new IllegalStateException("No private key configured for kid '" + activeKid + "'; this node can only verify");
+        }
+        return builder.setHeaderParam(JwsHeader.KEY_ID, activeKid).signWith(signingKey, algorithm);
+    }
+
+    // The key is chosen by the token's kid; jjwt then checks it against the token's alg
+    JwtParser parser() {
+        return Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = header.getKeyId() == null ? null : verificationKeys.get(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    private static Key ecKey(String where, String pem, boolean isPrivate) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        try {
+            byte[] der = Base64.getDecoder().decode(base64);
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            return isPrivate
+                    ? factory.generatePrivate(new PKCS8EncodedKeySpec(der))
+                    : factory.generatePublic(new X509EncodedKeySpec(der));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            throw new IllegalStateException(where + ": unreadable " + (isPrivate ? "private-key" : "public-key"), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Signing keys and lifetimes under {@code security.jwt}. Every node must be given the same keys.
+ * Tokens carry the kid of the key that signed them, so retired keys stay listed until their
+ * tokens have expired and a new key can be rolled out before it becomes the active one.
+ * <p>
+ * Secrets starting with {@value #DEV_SECRET_PREFIX} are published with the source and refused
+ * unless {@code allowDevSecrets} is set, which only the dev profile and the tests do.
+ */
+@ConfigurationProperties("security.jwt")
+public record JwtProperties(TokenKeys access, TokenKeys refresh, boolean allowDevSecrets) {
+
+    public static final String DEV_SECRET_PREFIX = "dev-only-";
+
+    public enum Algorithm {
+        // shared secret per key; every verifying node can also sign
+        HS256,
+        // EC P-256 key pair; nodes or proxies holding only public keys can verify but not sign
+        ES256
+    }
+
+    public record TokenKeys(Algorithm algorithm, String activeKey, List<SigningKey> keys, long ttlSeconds) {
+        public TokenKeys {
+            algorithm = algorithm == null ? Algorithm.HS256 : algorithm;
+            keys = keys == null ? List.of() : List.copyOf(keys);
+        }
+    }
+
+    /**
+     * One key. HS256 uses {@code secret} (at least 32 bytes); ES256 uses PEM {@code publicKey}
+     * (X.509) and, on nodes that issue tokens, {@code privateKey} (PKCS#8).
+     */
+    public record SigningKey(String kid, String secret, String privateKey, String publicKey) {
+    }
+}
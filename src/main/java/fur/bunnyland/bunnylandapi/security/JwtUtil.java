@@ -1,44 +1,79 @@
 package fur.bunnyland.bunnylandapi.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.MalformedJwtException;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
-    // TODO In production, read from config/env and don’t hardcode
-    private final Key accessKey  = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private final Key refreshKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    public static final String FAMILY_CLAIM = "fam";
 
-    private final long accessTtlMs  = 1000L * 60 * 15;  // 15 minutes
-    private final long refreshTtlMs = 1000L * 60 * 60 * 24 * 7; // 7 days
+    // Verified access tokens, keyed by SHA-256 of the compact token and kept until the token's own exp.
+    // Only tokens that pass verification are cached, so garbage tokens cannot crowd it out.
+    static final int CLAIMS_CACHE_SIZE = 10_000;
+    // Our tokens are a few hundred bytes; longer ones are refused before hashing or parsing
+    static final int MAX_TOKEN_LENGTH = 4096;
+
+    private final JwtKeys accessKeys;
+    private final JwtKeys refreshKeys;
+
+    private final long accessTtlMs;
+    private final long refreshTtlMs;
+
+    // Parsers are immutable and thread-safe
+    private final JwtParser accessParser;
+    private final JwtParser refreshParser;
+
+    private final Cache<String, Claims> accessClaims = Caffeine.newBuilder()
+            .maximumSize(CLAIMS_CACHE_SIZE)
+            .expireAfter(Expiry.creating((String digest, Claims claims) -> untilExpiry(claims)))
+            .build();
+
+    public JwtUtil(JwtProperties properties) {
+        this.accessKeys = JwtKeys.from("access", properties.access(), properties.allowDevSecrets());
+        this.refreshKeys = JwtKeys.from("refresh", properties.refresh(), properties.allowDevSecrets());
+        this.accessTtlMs = properties.access().ttlSeconds() * 1000;
+        this.refreshTtlMs = properties.refresh().ttlSeconds() * 1000;
+        this.accessParser = accessKeys.parser();
+        this.refreshParser = refreshKeys.parser();
+    }
 
     public String generateAccessToken(Long userId, String email, Set<String> roles) {
         long now = System.currentTimeMillis();
-        return Jwts.builder()
-                .setSubject(email)
-                .claim("id", userId)
-                .claim("roles", roles)
-                .setIssuedAt(new Date(now))
-                .setExpiration(new Date(now + accessTtlMs))
-                .signWith(accessKey)
+        return accessKeys.sign(Jwts.builder()
+                        .setSubject(email)
+                        .claim("id", userId)
+                        .claim("roles", roles)
+                        .setIssuedAt(new Date(now))
+                        .setExpiration(new Date(now + accessTtlMs)))
                 .compact();
     }
 
-    public String generateRefreshToken(Long userId, String email) {
+    // jti and family tie the token to its refresh_tokens row; see RefreshTokenService
+    public String generateRefreshToken(Long userId, String email, UUID jti, UUID familyId) {
         long now = System.currentTimeMillis();
-        return Jwts.builder()
-                .setSubject(email)
-                .claim("id", userId)
-                .setIssuedAt(new Date(now))
-                .setExpiration(new Date(now + refreshTtlMs))
-                .signWith(refreshKey)
+        return refreshKeys.sign(Jwts.builder()
+                        .setId(jti.toString())
+                        .setSubject(email)
+                        .claim("id", userId)
+                        .claim(FAMILY_CLAIM, familyId.toString())
+                        .setIssuedAt(new Date(now))
+                        .setExpiration(new Date(now + refreshTtlMs)))
                 .compact();
     }
 
@@ -46,19 +81,56 @@ public class JwtUtil {
         return accessTtlMs / 1000;
     }
 
+    public long getRefreshTtlSeconds() {
+        return refreshTtlMs / 1000;
+    }
+
     public Claims parseRefreshToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(refreshKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return refreshParser.parseClaimsJws(token).getBody();
     }
 
+    /**
+     * Verified claims of an access token. Repeat calls with the same token are answered from the
+     * claims cache; the returned claims are shared and must not be modified.
+     */
     public Claims parseAccessToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(accessKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            throw new MalformedJwtException("Access token longer than " + MAX_TOKEN_LENGTH + " characters");
+        }
+        String digest = digest(token);
+        Claims claims = accessClaims.getIfPresent(digest);
+        if (claims == null) {
+            claims = verifyAccessToken(token);
+            accessClaims.put(digest, claims);
+        }
+        return claims;
+    }
+
+    // Signature and expiry check without the cache
+    Claims verifyAccessToken(String token) {
+        return accessParser.parseClaimsJws(token).getBody();
+    }
+
+    long cachedAccessTokens() {
+        accessClaims.cleanUp();
+        return accessClaims.estimatedSize();
+    }
+
+    private static Duration untilExpiry(Claims claims) {
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            return Duration.ZERO;
+        }
+        Duration left = Duration.between(Instant.now(), exp.toInstant());
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,106 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.repository.ArchivedAnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.JobLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+
+/**
+ * Moves CLOSED and DELETED announcements untouched for {@code retention} into announcements_archive,
+ * in batches of {@link #BATCH_SIZE}. Guarded by the "announcement-archive" lease like the expiry job.
+ */
+@Slf4j
+@Component
+public class AnnouncementArchiveJob {
+
+    static final String LOCK_NAME = "announcement-archive";
+    static final int BATCH_SIZE = 500;
+
+    private final ArchivedAnnouncementRepository archivedAnnouncementRepository;
+    private final JobLockRepository jobLockRepository;
+    private final Duration retention;
+    private final Duration lease;
+    private final List<Cache> caches;
+
+    private final Counter archivedCounter;
+
+    public AnnouncementArchiveJob(ArchivedAnnouncementRepository archivedAnnouncementRepository,
+                                  JobLockRepository jobLockRepository,
+                                  CacheManager cacheManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${jobs.announcement-archive.retention:P30D}") Duration retention,
+                                  @Value("${jobs.announcement-archive.lease:PT10M}") Duration lease) {
+        this.archivedAnnouncementRepository = archivedAnnouncementRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.retention = retention;
+        this.lease = lease;
+        // Archived rows vanish from get(); lists only ever hold OPEN rows and need no eviction
+        this.caches = List.of(cacheManager.getCache(ANNOUNCEMENTS), cacheManager.getCache(ANNOUNCEMENT_JSON));
+        this.archivedCounter = Counter.builder("announcements.archive.moved")
+                .description("Announcements moved to the archive tables")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.announcement-archive.interval:PT1H}",
+            initialDelayString = "${jobs.announcement-archive.initial-delay:PT5M}")
+    public void scheduledRun() {
+        runOnce();
+    }
+
+    /**
+     * Runs one archive pass now and, if it moved anything, clears the per-announcement caches.
+     *
+     * @return the number of announcements archived, or empty if another run (on any node) holds the lock
+     */
+    // Evicts by hand rather than with @CacheEvict: scheduledRun() calls this on the target, not the proxy
+    public OptionalInt runOnce() {
+        String owner = JobLockRepository.runOwner();
+        if (jobLockRepository.tryLock(LOCK_NAME, owner, lease.toSeconds()) == 0) {
+            return OptionalInt.empty();
+        }
+        try {
+            return OptionalInt.of(archive(Instant.now().minus(retention), owner));
+        } finally {
+            jobLockRepository.unlock(LOCK_NAME, owner);
+        }
+    }
+
+    private int archive(Instant before, String owner) {
+        int moved = 0;
+        int batch;
+        try {
+            do {
+                batch = archivedAnnouncementRepository.archiveRetired(before, BATCH_SIZE);
+                moved += batch;
+                archivedCounter.increment(batch);
+                if (batch == BATCH_SIZE && jobLockRepository.tryLock(LOCK_NAME, owner, lease.toSeconds()) == 0) {
+                    log.warn("Lost the {} lease after archiving {} announcements", LOCK_NAME, moved);
+                    break;
+                }
+            } while (batch == BATCH_SIZE);
+        } finally {
+            if (moved > 0) {
+                caches.forEach(Cache::clear);
+            }
+        }
+
+        if (moved > 0) {
+            log.info("Archived {} announcements changed before {}", moved, before);
+        }
+        return moved;
+    }
+}
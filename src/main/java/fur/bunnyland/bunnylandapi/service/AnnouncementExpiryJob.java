@@ -0,0 +1,123 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.repository.AnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.JobLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_LISTS;
+
+/**
+ * Closes OPEN announcements whose end date has passed, in batches of {@link #BATCH_SIZE}.
+ * Only the run holding the "announcement-expiry" lease in job_locks closes anything, so at most one
+ * pass is active across all nodes, scheduled or admin-triggered; within a run,
+ * batches skip rows locked by concurrent writers instead of waiting for them.
+ */
+@Slf4j
+@Component
+public class AnnouncementExpiryJob {
+
+    static final String LOCK_NAME = "announcement-expiry";
+    static final int BATCH_SIZE = 1000;
+
+    private final AnnouncementRepository announcementRepository;
+    private final JobLockRepository jobLockRepository;
+    private final Duration lease;
+    private final List<Cache> caches;
+
+    private final Counter closedCounter;
+    private final Counter batchCounter;
+    private final Counter skippedCounter;
+    private final Timer runTimer;
+
+    public AnnouncementExpiryJob(AnnouncementRepository announcementRepository,
+                                 JobLockRepository jobLockRepository,
+                                 CacheManager cacheManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${jobs.announcement-expiry.lease:PT10M}") Duration lease) {
+        this.announcementRepository = announcementRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.lease = lease;
+        this.caches = List.of(cacheManager.getCache(ANNOUNCEMENTS),
+                cacheManager.getCache(ANNOUNCEMENT_JSON),
+                cacheManager.getCache(ANNOUNCEMENT_LISTS));
+        this.closedCounter = Counter.builder("announcements.expiry.closed")
+                .description("Announcements closed because their end date passed")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("announcements.expiry.batches")
+                .description("Expiry batches committed")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("announcements.expiry.skipped")
+                .description("Runs skipped because another run held the lock")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("announcements.expiry.run")
+                .description("Duration of expiry runs on this node")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.announcement-expiry.interval:PT5M}",
+            initialDelayString = "${jobs.announcement-expiry.initial-delay:PT1M}")
+    public void scheduledRun() {
+        runOnce();
+    }
+
+    /**
+     * Runs one expiry pass now and, if it closed anything, clears the announcement caches.
+     *
+     * @return the number of announcements closed, or empty if another run (on any node) holds the lock
+     */
+    // Evicts by hand rather than with @CacheEvict: scheduledRun() calls this on the target, not the proxy
+    public OptionalInt runOnce() {
+        String owner = JobLockRepository.runOwner();
+        if (jobLockRepository.tryLock(LOCK_NAME, owner, lease.toSeconds()) == 0) {
+            skippedCounter.increment();
+            return OptionalInt.empty();
+        }
+        try {
+            return OptionalInt.of(runTimer.record(() -> closeExpired(owner)));
+        } finally {
+            jobLockRepository.unlock(LOCK_NAME, owner);
+        }
+    }
+
+    private int closeExpired(String owner) {
+        LocalDate today = LocalDate.now();
+        int closed = 0;
+        int batch;
+        try {
+            do {
+                // Each batch is its own transaction; renewing the lease keeps a long backlog with this run
+                batch = announcementRepository.closeExpiredChunk(today, BATCH_SIZE);
+                closed += batch;
+                batchCounter.increment();
+                closedCounter.increment(batch);
+                if (batch == BATCH_SIZE && jobLockRepository.tryLock(LOCK_NAME, owner, lease.toSeconds()) == 0) {
+                    log.warn("Lost the {} lease after closing {} announcements", LOCK_NAME, closed);
+                    break;
+                }
+            } while (batch == BATCH_SIZE);
+        } finally {
+            // Batches before a failed one are committed, so their rows must leave the caches too
+            if (closed > 0) {
+                caches.forEach(Cache::clear);
+            }
+        }
+
+        log.info("Closed {} expired announcements", closed);
+        return closed;
+    }
+}
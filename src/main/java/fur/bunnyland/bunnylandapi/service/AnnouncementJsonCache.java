@@ -0,0 +1,81 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+
+/**
+ * UTF-8 JSON of single announcements, serialized once per change version.
+ * Lists are written by concatenating the cached fragments, so Jackson only runs for
+ * announcements that changed since they were last served.
+ */
+@Component
+public class AnnouncementJsonCache {
+
+    public record Entry(Long version, byte[] json) {}
+
+    private final ObjectMapper objectMapper;
+    private final Cache cache;
+
+    public AnnouncementJsonCache(ObjectMapper objectMapper, CacheManager cacheManager) {
+        this.objectMapper = objectMapper;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(ANNOUNCEMENT_JSON));
+    }
+
+    public byte[] json(AnnouncementResponse announcement) {
+        Entry entry = cache.get(announcement.id(), Entry.class);
+        // A stale fragment is never served: any write gives the row a new version
+        if (entry == null || !Objects.equals(entry.version(), announcement.version())) {
+            entry = new Entry(announcement.version(), serialize(announcement));
+            cache.put(announcement.id(), entry);
+        }
+        return entry.json();
+    }
+
+    public List<byte[]> fragments(List<AnnouncementResponse> announcements) {
+        List<byte[]> fragments = new ArrayList<>(announcements.size());
+        for (AnnouncementResponse a : announcements) {
+            fragments.add(json(a));
+        }
+        return fragments;
+    }
+
+    public static long arrayLength(List<byte[]> fragments) {
+        long length = 2 + Math.max(fragments.size() - 1, 0);
+        for (byte[] fragment : fragments) {
+            length += fragment.length;
+        }
+        return length;
+    }
+
+    public static void writeArray(List<byte[]> fragments, OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < fragments.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(fragments.get(i));
+        }
+        out.write(']');
+    }
+
+    private byte[] serialize(AnnouncementResponse announcement) {
+        try {
+            return objectMapper.writeValueAsBytes(announcement);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,38 +1,71 @@
 package fur.bunnyland.bunnylandapi.service;
 
+import fur.bunnyland.bunnylandapi.api.dto.PageResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.*;
 import fur.bunnyland.bunnylandapi.domain.*;
 import fur.bunnyland.bunnylandapi.repository.AnnouncementApplicationRepository;
+import fur.bunnyland.bunnylandapi.repository.AnnouncementCatalogRepository;
+import fur.bunnyland.bunnylandapi.repository.AnnouncementCountRepository;
 import fur.bunnyland.bunnylandapi.repository.AnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.ArchivedAnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.CityCoordinatesRepository;
 import fur.bunnyland.bunnylandapi.repository.UserRepository;
-import fur.bunnyland.bunnylandapi.security.JwtUtil;
-import io.jsonwebtoken.Claims;
+import fur.bunnyland.bunnylandapi.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_LISTS;
+import static fur.bunnyland.bunnylandapi.repository.AnnouncementSpecifications.*;
 
 @Service
 @RequiredArgsConstructor
 public class AnnouncementService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    // Ranked text search re-reads every skipped match, so deep pages are refused rather than served slowly
+    static final long MAX_SEARCH_OFFSET = 10_000;
+    static final double DEFAULT_RADIUS_KM = 30;
+    static final double MAX_RADIUS_KM = 200;
+    // Mean earth radius; must match the constant in Announcement.findNearby
+    private static final double KM_PER_DEGREE = Math.PI * 6371.0088 / 180;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
     private final AnnouncementRepository announcementRepository;
+    private final ArchivedAnnouncementRepository archivedAnnouncementRepository;
     private final AnnouncementApplicationRepository announcementApplicationRepository;
+    private final AnnouncementCatalogRepository announcementCatalogRepository;
+    private final AnnouncementCountRepository announcementCountRepository;
+    private final CityCoordinatesRepository cityCoordinatesRepository;
     private final UserRepository userRepository;
-    private final JwtUtil jwtUtil;
+    private final AnnouncementExpiryJob announcementExpiryJob;
 
+    @CacheEvict(cacheNames = ANNOUNCEMENT_LISTS, allEntries = true)
     @Transactional
-    public ResponseObject<CreateAnnouncementResponse> create(String bearerToken, CreateAnnouncementRequest req) {
-        // Extract owner from token
-        Claims claims = jwtUtil.parseAccessToken(bearerToken);
-        Long userId = claims.get("id", Long.class);
-
-        User owner = userRepository.findById(userId).orElse(null);
+    public ResponseObject<CreateAnnouncementResponse> create(AuthenticatedUser caller, CreateAnnouncementRequest req) {
+        User owner = userRepository.findById(caller.id()).orElse(null);
         if (owner == null) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.UNAUTHORIZED,
@@ -49,6 +82,12 @@ public class AnnouncementService {
             );
         }
 
+        if ((req.latitude() == null) != (req.longitude() == null)) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST, ErrorCode.INVALID_LOCATION, "latitude and longitude go together", "send both or neither")
+            );
+        }
+
         Announcement a = new Announcement();
         a.setOwner(owner);
         a.setTitle(req.title());
@@ -59,6 +98,18 @@ public class AnnouncementService {
         a.setEndDate(req.endDate());
         a.setStatus(AnnouncementStatus.OPEN.name());
 
+        // Without explicit coordinates, fall back to the city centre so the announcement still shows up nearby
+        if (req.latitude() != null) {
+            a.setLatitude(req.latitude());
+            a.setLongitude(req.longitude());
+        } else if (StringUtils.hasText(req.city()) && StringUtils.hasText(req.country())) {
+            cityCoordinatesRepository.findByCityAndCountry(req.city().trim(), req.country().trim())
+                    .ifPresent(c -> {
+                        a.setLatitude(c.getLatitude());
+                        a.setLongitude(c.getLongitude());
+                    });
+        }
+
         Announcement saved = announcementRepository.save(a);
 
         CreateAnnouncementResponse body = new CreateAnnouncementResponse(
@@ -77,31 +128,210 @@ public class AnnouncementService {
     }
 
     @Transactional(readOnly = true)
-    public List<AnnouncementResponse> listAll() {
-        return announcementRepository.findByStatus(AnnouncementStatus.OPEN.name()).stream()
-                .filter(a -> Objects.equals(a.getStatus(), AnnouncementStatus.OPEN.name()))
-                .map(a -> new AnnouncementResponse(
-                        a.getId(),
-                        a.getOwner().getId(),
-                        a.getTitle(),
-                        a.getDescription(),
-                        a.getCity(),
-                        a.getCountry(),
-                        a.getStartDate(),
-                        a.getEndDate(),
-                        a.getStatus(),
-                        a.getCreatedAt()
-                ))
+    public AnnouncementCatalog catalog() {
+        return announcementCatalogRepository.findById(AnnouncementCatalog.ID).orElseThrow();
+    }
+
+    /**
+     * Folds committed catalog change rows into the base row; the version {@link #catalog()} reads stays the same.
+     * Keeps the change log, which every catalog read counts, down to the writes since the last fold.
+     */
+    @Scheduled(fixedDelayString = "${jobs.announcement-catalog-fold.interval:PT10S}",
+            initialDelayString = "${jobs.announcement-catalog-fold.initial-delay:PT10S}")
+    public void foldCatalogChanges() {
+        announcementCatalogRepository.fold();
+    }
+
+    /**
+     * Lists OPEN announcements as of at least {@code asOfVersion} (see {@link #catalog()}).
+     * The version only keys the cache: a list can never be served under an older catalog version than it was read at.
+     */
+    @Cacheable(cacheNames = ANNOUNCEMENT_LISTS, key = "#asOfVersion")
+    @Transactional(readOnly = true)
+    public List<AnnouncementResponse> listAll(long asOfVersion) {
+        return announcementRepository.findResponsesByStatus(AnnouncementStatus.OPEN.name());
+    }
+
+    @Cacheable(cacheNames = ANNOUNCEMENT_LISTS, unless = "#result.hasError()")
+    @Transactional(readOnly = true)
+    public ResponseObject<PageResponse<AnnouncementResponse>> listPage(Integer limit, String cursor) {
+        int pageSize = pageSize(limit);
+        PageCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+
+        // One extra row tells us whether another page exists without a count query
+        Limit fetch = Limit.of(pageSize + 1);
+        List<AnnouncementResponse> rows = after == null
+                ? announcementRepository.findFirstPage(AnnouncementStatus.OPEN.name(), fetch)
+                : announcementRepository.findPageAfter(AnnouncementStatus.OPEN.name(), after.createdAt(), after.id(), fetch);
+
+        return ResponseObject.ok(toPage(rows, pageSize));
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseObject<PageResponse<AnnouncementResponse>> search(SearchAnnouncementsRequest req, Integer limit, String cursor) {
+        if (req.startDate() != null && req.endDate() != null && req.endDate().isBefore(req.startDate())) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST, ErrorCode.INVALID_DATES, "endDate cannot be before startDate", "put a proper endDate")
+            );
+        }
+
+        int pageSize = pageSize(limit);
+        PageCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+
+        Specification<Announcement> spec = hasStatus(AnnouncementStatus.OPEN.name());
+        if (StringUtils.hasText(req.city())) {
+            spec = spec.and(inCity(req.city().trim()));
+        }
+        if (StringUtils.hasText(req.country())) {
+            spec = spec.and(inCountry(req.country().trim()));
+        }
+        if (req.startDate() != null) {
+            spec = spec.and(startsOnOrAfter(req.startDate()));
+        }
+        if (req.endDate() != null) {
+            spec = spec.and(endsOnOrBefore(req.endDate()));
+        }
+        if (after != null) {
+            spec = spec.and(createdBefore(after.createdAt(), after.id()));
+        }
+
+        List<AnnouncementResponse> rows = announcementRepository.search(spec, NEWEST_FIRST, pageSize + 1);
+        return ResponseObject.ok(toPage(rows, pageSize));
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseObject<List<AnnouncementResponse>> searchText(String query, int page, Integer size) {
+        if (!StringUtils.hasText(query)) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST,
+                            ErrorCode.INVALID_SEARCH_QUERY,
+                            "Search query is empty",
+                            "Provide at least one keyword in 'q'")
+            );
+        }
+        int pageSize = pageSize(size);
+        long offset = (long) Math.max(page, 0) * pageSize;
+        if (offset > MAX_SEARCH_OFFSET) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST,
+                            ErrorCode.INVALID_PAGE,
+                            "Page is too deep",
+                            "Text search returns at most the first " + MAX_SEARCH_OFFSET + " matches; refine the query")
+            );
+        }
+
+        return ResponseObject.ok(announcementRepository.searchText(query.trim(), pageSize, (int) offset));
+    }
+
+    /**
+     * Open announcements per city and country (top {@code limit} of each) and totals per status,
+     * read from the trigger-maintained announcement_counts table.
+     */
+    @Transactional(readOnly = true)
+    public AnnouncementFacetsResponse facets(Integer limit) {
+        Limit top = Limit.of(pageSize(limit));
+        return new AnnouncementFacetsResponse(
+                announcementCountRepository.countByCity(AnnouncementStatus.OPEN.name(), top),
+                announcementCountRepository.countByCountry(AnnouncementStatus.OPEN.name(), top),
+                announcementCountRepository.countByStatus(AnnouncementStatus.DELETED.name())
+        );
+    }
+
+    /**
+     * OPEN announcements whose start..end window shares at least one day with {@code from..to}
+     * (both inclusive; a missing {@code to} means the single day {@code from}), newest first.
+     */
+    @Transactional(readOnly = true)
+    public ResponseObject<PageResponse<AnnouncementResponse>> available(LocalDate from, LocalDate to, Integer limit, String cursor) {
+        LocalDate until = to == null ? from : to;
+        if (until.isBefore(from)) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST, ErrorCode.INVALID_DATES, "to cannot be before from", "put a proper to date")
+            );
+        }
+
+        int pageSize = pageSize(limit);
+        PageCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+
+        List<AnnouncementResponse> rows = after == null
+                ? announcementRepository.findAvailableFirstPage(from, until, pageSize + 1)
+                : announcementRepository.findAvailableAfter(from, until, after.createdAt(), after.id(), pageSize + 1);
+        return ResponseObject.ok(toPage(rows, pageSize));
+    }
+
+    /**
+     * OPEN announcements within {@code radiusKm} of the given point, nearest first.
+     */
+    @Transactional(readOnly = true)
+    public ResponseObject<List<NearbyAnnouncementResponse>> nearby(double lat, double lon, Double radiusKm, Integer limit) {
+        double radius = radiusKm == null ? DEFAULT_RADIUS_KM : radiusKm;
+        // Range checks alone let NaN through: every comparison with it is false
+        if (!Double.isFinite(lat) || !Double.isFinite(lon)
+                || lat < -90 || lat > 90 || lon < -180 || lon > 180 || !(radius > 0) || radius > MAX_RADIUS_KM) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST,
+                            ErrorCode.INVALID_LOCATION,
+                            "Invalid location",
+                            "lat must be within [-90, 90], lon within [-180, 180] and radiusKm within (0, " + MAX_RADIUS_KM + "]")
+            );
+        }
+
+        double dLat = radius / KM_PER_DEGREE;
+        double minLon = -180;
+        double maxLon = 180;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        // A degree of longitude shrinks towards the poles; near them, or across the antimeridian, scan every meridian
+        if (cosLat > 1e-6) {
+            double dLon = radius / (KM_PER_DEGREE * cosLat);
+            if (lon - dLon >= -180 && lon + dLon <= 180) {
+                minLon = lon - dLon;
+                maxLon = lon + dLon;
+            }
+        }
+
+        List<NearbyAnnouncementResponse> body = announcementRepository
+                .findNearby(lat, lon, lat - dLat, lat + dLat, minLon, maxLon, radius, pageSize(limit))
+                .stream()
+                .map(row -> new NearbyAnnouncementResponse((AnnouncementResponse) row[0], (Double) row[1]))
                 .toList();
+        return ResponseObject.ok(body);
     }
 
-    @Transactional
-    public ResponseObject<CloseExpiredAnnouncementsResponse> closeExpired(String bearerToken) {
-        Claims claims = jwtUtil.parseAccessToken(bearerToken);
-        List<String> roles = claims.get("roles", List.class);
+    /**
+     * Feeds every OPEN announcement to {@code sink} while rows are still being fetched,
+     * so the caller can write them out without holding the whole catalog in memory.
+     */
+    @Transactional(readOnly = true)
+    public long exportOpen(Consumer<AnnouncementResponse> sink) {
+        long count = 0;
+        try (Stream<AnnouncementResponse> rows = announcementRepository.streamByStatus(AnnouncementStatus.OPEN.name())) {
+            Iterator<AnnouncementResponse> it = rows.iterator();
+            while (it.hasNext()) {
+                sink.accept(it.next());
+                count++;
+            }
+        }
+        return count;
+    }
 
-        boolean isAdmin = roles != null && roles.contains("ADMIN");
-        if (!isAdmin) {
+    // Runs the scheduled expiry pass right away; the job commits batch by batch and evicts the caches
+    public ResponseObject<CloseExpiredAnnouncementsResponse> closeExpired(AuthenticatedUser caller) {
+        if (!caller.isAdmin()) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.FORBIDDEN,
                             ErrorCode.FORBIDDEN,
@@ -110,33 +340,79 @@ public class AnnouncementService {
             );
         }
 
-        LocalDate today = LocalDate.now();
-        List<Announcement> expired = announcementRepository
-                .findByStatusAndEndDateBefore(AnnouncementStatus.OPEN.name(), today);
-        for (Announcement a : expired) {
-            a.setStatus(AnnouncementStatus.CLOSED.name());
+        OptionalInt closed = announcementExpiryJob.runOnce();
+        if (closed.isEmpty()) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.CONFLICT,
+                            ErrorCode.EXPIRY_IN_PROGRESS,
+                            "Expiry already running",
+                            "Another instance is closing expired announcements right now")
+            );
+        }
+        return ResponseObject.ok(new CloseExpiredAnnouncementsResponse(closed.getAsInt()));
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseObject<PageResponse<AnnouncementResponse>> listArchived(AuthenticatedUser caller, Integer limit, String cursor) {
+        if (!caller.isAdmin()) {
+            return archiveForbidden();
+        }
+
+        int pageSize = pageSize(limit);
+        PageCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+
+        Limit fetch = Limit.of(pageSize + 1);
+        List<AnnouncementResponse> rows = after == null
+                ? archivedAnnouncementRepository.findFirstPage(fetch)
+                : archivedAnnouncementRepository.findPageAfter(after.createdAt(), after.id(), fetch);
+        return ResponseObject.ok(toPage(rows, pageSize));
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseObject<ArchivedAnnouncementResponse> getArchived(AuthenticatedUser caller, Long id) {
+        if (!caller.isAdmin()) {
+            return archiveForbidden();
+        }
+
+        ArchivedAnnouncement a = archivedAnnouncementRepository.findById(id).orElse(null);
+        if (a == null) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.NOT_FOUND,
+                            ErrorCode.ANNOUNCEMENT_NOT_FOUND,
+                            "Announcement not found",
+                            "No archived announcement found with id " + id)
+            );
         }
-        announcementRepository.saveAll(expired);
 
-        return ResponseObject.ok(new CloseExpiredAnnouncementsResponse(expired.size()));
+        AnnouncementResponse announcement = new AnnouncementResponse(
+                a.getId(),
+                a.getOwnerId(),
+                a.getTitle(),
+                a.getDescription(),
+                a.getCity(),
+                a.getCountry(),
+                a.getStartDate(),
+                a.getEndDate(),
+                a.getStatus(),
+                a.getCreatedAt(),
+                a.getChangeVersion(),
+                a.getUpdatedAt(),
+                a.getApplicationCount()
+        );
+        return ResponseObject.ok(new ArchivedAnnouncementResponse(
+                announcement, a.getArchivedAt(), archivedAnnouncementRepository.findApplications(id)));
     }
 
+    @Cacheable(cacheNames = ANNOUNCEMENTS, key = "#id", unless = "#result.hasError()")
     @Transactional(readOnly = true)
     public ResponseObject<AnnouncementResponse> get(Long id) {
-        return announcementRepository.findById(id)
-                .filter(a  -> !Objects.equals(a.getStatus(), AnnouncementStatus.DELETED.name()))
-                .map(a -> ResponseObject.ok(new AnnouncementResponse(
-                        a.getId(),
-                        a.getOwner().getId(),
-                        a.getTitle(),
-                        a.getDescription(),
-                        a.getCity(),
-                        a.getCountry(),
-                        a.getStartDate(),
-                        a.getEndDate(),
-                        a.getStatus(),
-                        a.getCreatedAt()
-                )))
+        return announcementRepository.findResponseById(id, AnnouncementStatus.DELETED.name())
+                .map(ResponseObject::ok)
                 .orElseGet(() -> ResponseObject.fail(
                         new MessageError(HttpStatus.NOT_FOUND,
                                 ErrorCode.ANNOUNCEMENT_NOT_FOUND,
@@ -145,13 +421,14 @@ public class AnnouncementService {
                 );
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ANNOUNCEMENTS, key = "#id"),
+            @CacheEvict(cacheNames = ANNOUNCEMENT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = ANNOUNCEMENT_LISTS, allEntries = true)
+    })
     @Transactional
-    public ResponseObject<ModerateAnnouncementResponse> moderate(String bearerToken, Long id, AnnouncementStatus status) {
-        Claims claims = jwtUtil.parseAccessToken(bearerToken);
-        List<String> roles = claims.get("roles", List.class);
-
-        boolean isAdmin = roles != null && roles.contains("ADMIN");
-        if (!isAdmin) {
+    public ResponseObject<ModerateAnnouncementResponse> moderate(AuthenticatedUser caller, Long id, AnnouncementStatus status) {
+        if (!caller.isAdmin()) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.FORBIDDEN,
                             ErrorCode.FORBIDDEN,
@@ -176,12 +453,13 @@ public class AnnouncementService {
         return ResponseObject.ok(body);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ANNOUNCEMENTS, key = "#id"),
+            @CacheEvict(cacheNames = ANNOUNCEMENT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = ANNOUNCEMENT_LISTS, allEntries = true)
+    })
     @Transactional
-    public ResponseObject<DeleteAnnouncementResponse> delete(String bearerToken, Long id) {
-        Claims claims = jwtUtil.parseAccessToken(bearerToken);
-        Long userId = claims.get("id", Long.class);
-        List<String> roles = claims.get("roles", List.class);
-
+    public ResponseObject<DeleteAnnouncementResponse> delete(AuthenticatedUser caller, Long id) {
         Announcement a = announcementRepository.findById(id).orElse(null);
         if (a == null) {
             return ResponseObject.fail(
@@ -192,8 +470,7 @@ public class AnnouncementService {
             );
         }
 
-        boolean isAdmin = roles != null && roles.contains("ADMIN");
-        if (!isAdmin && !a.getOwner().getId().equals(userId)) {
+        if (!caller.isAdmin() && !a.getOwner().getId().equals(caller.id())) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.FORBIDDEN,
                             ErrorCode.FORBIDDEN,
@@ -208,6 +485,11 @@ public class AnnouncementService {
         return ResponseObject.ok(body);
     }
 
+    // The cached announcement carries applicationCount; paged lists may show the old count until their short TTL runs out
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ANNOUNCEMENTS, key = "#id"),
+            @CacheEvict(cacheNames = ANNOUNCEMENT_JSON, key = "#id")
+    })
     @Transactional
     public ResponseObject<ApplyAnnouncementResponse> apply(Long id, ApplyAnnouncementRequest req) {
         Optional<Announcement> announcementOptional = announcementRepository.findById(id)
@@ -239,12 +521,10 @@ public class AnnouncementService {
     }
 
     @Transactional(readOnly = true)
-    public ResponseObject<List<AnnouncementApplicationResponse>> listApplicationsForOwner(String bearerToken) {
-        Claims claims = jwtUtil.parseAccessToken(bearerToken);
-        Long userId = claims.get("id", Long.class);
+    public ResponseObject<List<AnnouncementApplicationResponse>> listApplicationsForOwner(AuthenticatedUser caller) {
+        Long userId = caller.id();
 
-        User owner = userRepository.findById(userId).orElse(null);
-        if (owner == null) {
+        if (!userRepository.existsById(userId)) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.UNAUTHORIZED,
                             ErrorCode.USER_NOT_FOUND,
@@ -254,17 +534,78 @@ public class AnnouncementService {
         }
 
         List<AnnouncementApplicationResponse> apps = announcementApplicationRepository
-                .findByAnnouncementOwnerIdAndAnnouncementStatus(userId, AnnouncementStatus.OPEN.name())
-                .stream()
-                .map(app -> new AnnouncementApplicationResponse(
-                        app.getId(),
-                        app.getAnnouncement().getId(),
-                        app.getMessage(),
-                        app.getContact(),
-                        app.getCreatedAt()
-                ))
-                .toList();
+                .findResponsesByOwnerIdAndStatus(userId, AnnouncementStatus.OPEN.name());
 
         return ResponseObject.ok(apps);
     }
+
+    /**
+     * Applications to the caller's OPEN announcements, newest first, optionally for one announcement only.
+     */
+    @Transactional(readOnly = true)
+    public ResponseObject<PageResponse<AnnouncementApplicationResponse>> applicationsPage(
+            AuthenticatedUser caller, Long announcementId, Integer limit, String cursor) {
+        Long userId = caller.id();
+
+        int pageSize = pageSize(limit);
+        PageCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+
+        String status = AnnouncementStatus.OPEN.name();
+        Limit fetch = Limit.of(pageSize + 1);
+        List<AnnouncementApplicationResponse> rows;
+        if (announcementId == null) {
+            rows = after == null
+                    ? announcementApplicationRepository.findInboxFirstPage(userId, status, fetch)
+                    : announcementApplicationRepository.findInboxPageAfter(userId, status, after.createdAt(), after.id(), fetch);
+        } else {
+            rows = after == null
+                    ? announcementApplicationRepository.findInboxFirstPage(userId, status, announcementId, fetch)
+                    : announcementApplicationRepository.findInboxPageAfter(userId, status, announcementId, after.createdAt(), after.id(), fetch);
+        }
+        return ResponseObject.ok(toPage(rows, pageSize, app -> new PageCursor(app.createdAt(), app.id())));
+    }
+
+    private static <T> ResponseObject<T> archiveForbidden() {
+        return ResponseObject.fail(
+                new MessageError(HttpStatus.FORBIDDEN,
+                        ErrorCode.FORBIDDEN,
+                        "Forbidden",
+                        "Only admin can read archived announcements")
+        );
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    }
+
+    private static PageCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+    }
+
+    private static <T> ResponseObject<T> invalidCursor() {
+        return ResponseObject.fail(
+                new MessageError(HttpStatus.BAD_REQUEST,
+                        ErrorCode.INVALID_CURSOR,
+                        "Invalid cursor",
+                        "Use the 'next' value returned by the previous page")
+        );
+    }
+
+    private static PageResponse<AnnouncementResponse> toPage(List<AnnouncementResponse> rows, int pageSize) {
+        return toPage(rows, pageSize, a -> new PageCursor(a.createdAt(), a.id()));
+    }
+
+    private static <T> PageResponse<T> toPage(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        List<T> items = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String next = null;
+        if (rows.size() > pageSize) {
+            next = cursorOf.apply(items.get(items.size() - 1)).encode();
+        }
+        return new PageResponse<>(items, next);
+    }
 }
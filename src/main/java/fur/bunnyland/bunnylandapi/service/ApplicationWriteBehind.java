@@ -0,0 +1,298 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAcceptedResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAnnouncementRequest;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementStatus;
+import fur.bunnyland.bunnylandapi.domain.ErrorCode;
+import fur.bunnyland.bunnylandapi.domain.MessageError;
+import fur.bunnyland.bunnylandapi.domain.ResponseObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+
+/**
+ * Write-behind path for {@code POST /api/announcements/{id}/apply} with {@code Prefer: respond-async}.
+ * Requests are checked against the cached announcement, queued, and acknowledged at once; a single
+ * writer thread drains the queue into batched inserts. A full queue is refused rather than waited on.
+ * <p>
+ * An acknowledged application is never thrown away: a failed batch is retried with backoff, then
+ * written row by row so only rows the database refuses are rejected. While the database is down
+ * the rows are kept and retried on the next drain.
+ * <p>
+ * Stops after the web server, so requests accepted before shutdown are still written.
+ */
+@Slf4j
+@Component
+public class ApplicationWriteBehind implements SmartLifecycle {
+
+    // Same block size as the pooled Hibernate generator and the sequence increment (V17)
+    static final int ID_BLOCK = 50;
+
+    // Re-checks the status at write time: the announcement may have closed while the row was queued.
+    // A commit whose acknowledgement got lost is harmless to retry: the id is already there.
+    static final String INSERT = """
+            insert into announcement_applications (id, announcement_id, message, contact, created_at)
+            select ?, a.id, ?, ?, ?
+              from announcements a
+             where a.id = ? and a.status = 'OPEN'
+            on conflict (id) do nothing""";
+
+    record Pending(long id, long announcementId, String message, String contact, Instant createdAt) {
+    }
+
+    private final AnnouncementService announcementService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache announcementCache;
+    private final BlockingQueue<Pending> queue;
+    // Rows a failed drain kept for the next one; only the writer thread adds or takes
+    private final Deque<Pending> carryOver = new ConcurrentLinkedDeque<>();
+    private final int batchSize;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+    private final Duration shutdownTimeout;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+
+    private long nextId;
+    private long blockEnd;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ApplicationWriteBehind(AnnouncementService announcementService,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  CacheManager cacheManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${applications.write-behind.capacity:10000}") int capacity,
+                                  @Value("${applications.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${applications.write-behind.retry-attempts:3}") int retryAttempts,
+                                  @Value("${applications.write-behind.retry-backoff:PT0.2S}") Duration retryBackoff,
+                                  @Value("${applications.write-behind.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+        this.announcementService = announcementService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.announcementCache = cacheManager.getCache(ANNOUNCEMENTS);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.retryAttempts = Math.max(retryAttempts, 1);
+        this.retryBackoff = retryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("applications.write_behind.queued", queue, BlockingQueue::size)
+                .description("Applications accepted but not yet written")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("applications.write_behind.written")
+                .description("Buffered applications inserted")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("applications.write_behind.dropped")
+                .description("Buffered applications skipped because the announcement was no longer open")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("applications.write_behind.rejected")
+                .description("Applications refused because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("applications.write_behind.failed")
+                .description("Buffered applications the database refused to store")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("applications.write_behind.retried")
+                .description("Batch writes retried after a failure")
+                .register(meterRegistry);
+    }
+
+    public ResponseObject<ApplyAcceptedResponse> submit(Long announcementId, ApplyAnnouncementRequest req) {
+        // Cached read: a popular announcement costs no query per request
+        ResponseObject<AnnouncementResponse> announcement = announcementService.get(announcementId);
+        if (announcement.hasError() || !AnnouncementStatus.OPEN.name().equals(announcement.body().status())) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.NOT_FOUND,
+                            ErrorCode.ANNOUNCEMENT_NOT_FOUND,
+                            "Announcement not found",
+                            "No announcement found with id " + announcementId)
+            );
+        }
+
+        Pending pending = new Pending(nextId(), announcementId, req.message(), req.contact(), Instant.now());
+        if (!queue.offer(pending)) {
+            rejectedCounter.increment();
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.SERVICE_UNAVAILABLE,
+                            ErrorCode.APPLY_QUEUE_FULL,
+                            "Too many applications right now",
+                            "Retry shortly, or apply without Prefer: respond-async")
+            );
+        }
+        return ResponseObject.ok(new ApplyAcceptedResponse(pending.id(), announcementId, pending.createdAt()));
+    }
+
+    /**
+     * Writes up to one batch of queued applications, waiting at most {@code wait} for the first one.
+     * Rows kept back by an earlier failed drain go first.
+     *
+     * @return the number of applications taken off the queue or the carry-over
+     */
+    int drainOnce(Duration wait) throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && !carryOver.isEmpty()) {
+            batch.add(carryOver.poll());
+        }
+        if (batch.isEmpty()) {
+            Pending first = queue.poll(wait.toMillis(), TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return 0;
+            }
+            batch.add(first);
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        // Each insert locks its announcement row for the count; one order for all writers avoids deadlocks
+        batch.sort(Comparator.comparingLong(Pending::announcementId));
+
+        try {
+            writeBatch(batch);
+        } catch (InterruptedException e) {
+            carryOver.addAll(batch);
+            throw e;
+        }
+        // Once per batch and announcement, so the admission check above keeps hitting the cache
+        batch.stream().map(Pending::announcementId).distinct().forEach(announcementCache::evict);
+        return batch.size();
+    }
+
+    private void writeBatch(List<Pending> batch) throws InterruptedException {
+        List<Object[]> args = batch.stream().map(ApplicationWriteBehind::args).toList();
+        Duration backoff = retryBackoff;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // One transaction, so a retry never meets half of an earlier attempt
+                int[] counts = transactionTemplate.execute(tx -> jdbcTemplate.batchUpdate(INSERT, args));
+                count(batch.size(), Arrays.stream(counts).sum());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= retryAttempts) {
+                    log.warn("Batch of {} buffered applications failed {} times, writing them one by one",
+                            batch.size(), attempt, e);
+                    break;
+                }
+                log.warn("Batch of {} buffered applications failed, retrying in {}: {}", batch.size(), backoff, e.toString());
+                retriedCounter.increment();
+                Thread.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2);
+            }
+        }
+        writeRowByRow(batch);
+    }
+
+    private void writeRowByRow(List<Pending> batch) {
+        int tried = 0;
+        int written = 0;
+        for (Pending p : batch) {
+            try {
+                written += jdbcTemplate.update(INSERT, args(p));
+            } catch (DataIntegrityViolationException e) {
+                // This row can never go in; the rest of the batch still can
+                failedCounter.increment();
+                log.error("Refused buffered application {} for announcement {}: {}",
+                        p.id(), p.announcementId(), e.getMessage());
+            } catch (RuntimeException e) {
+                // Not this row's fault: keep it and everything after it for the next drain
+                List<Pending> rest = batch.subList(tried, batch.size());
+                carryOver.addAll(rest);
+                log.warn("Database unavailable, keeping {} buffered applications for the next attempt", rest.size(), e);
+                break;
+            }
+            tried++;
+        }
+        count(tried, written);
+    }
+
+    private void count(int tried, int written) {
+        writtenCounter.increment(written);
+        droppedCounter.increment(tried - written);
+    }
+
+    private static Object[] args(Pending p) {
+        return new Object[]{p.id(), p.message(), p.contact(), Timestamp.from(p.createdAt()), p.announcementId()};
+    }
+
+    // Ids come from the shared sequence in blocks: each nextval is the top of a fresh block of ID_BLOCK.
+    // The first value of a new sequence is 1, whose block holds nothing below it.
+    private synchronized long nextId() {
+        if (nextId == blockEnd) {
+            blockEnd = jdbcTemplate.queryForObject("select nextval('announcement_applications_id_seq')", Long.class);
+            nextId = Math.max(blockEnd - ID_BLOCK, 0);
+        }
+        return ++nextId;
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty() || !carryOver.isEmpty()) {
+                drainOnce(Duration.ofMillis(200));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Write-behind writer interrupted with {} applications unwritten", queue.size() + carryOver.size());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("application-write-behind").start(this::writeLoop);
+    }
+
+    @Override
+    public void stop() {
+        // Refuse new work, let the writer empty the queue, then give up after the timeout
+        running = false;
+        try {
+            writer.join(shutdownTimeout);
+            if (writer.isAlive()) {
+                writer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Write-behind stopped, {} applications left unwritten", queue.size() + carryOver.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Lower phases stop later: after the web server (DEFAULT_PHASE - 2048) has stopped taking requests
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
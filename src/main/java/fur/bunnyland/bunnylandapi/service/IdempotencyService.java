@@ -0,0 +1,180 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fur.bunnyland.bunnylandapi.domain.ErrorCode;
+import fur.bunnyland.bunnylandapi.domain.IdempotencyKey;
+import fur.bunnyland.bunnylandapi.domain.MessageError;
+import fur.bunnyland.bunnylandapi.domain.ResponseObject;
+import fur.bunnyland.bunnylandapi.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.IDEMPOTENCY_KEYS;
+
+/**
+ * {@code Idempotency-Key} support for retried POSTs. The first request with a key claims it in
+ * idempotency_keys, runs, and stores its {@link ResponseObject}; retries within the TTL get that
+ * result back without running again. Completed results are also kept in a bounded in-memory cache
+ * so most replays never reach the database.
+ * <p>
+ * A key is tied to the request body it was first used with; reusing it for a different body is
+ * refused. 5xx results are not stored, so the client's retry runs again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    record Completed(String fingerprint, String response) {
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache completedCache;
+    private final Duration ttl;
+    private final Duration lease;
+
+    private final Counter replayedCounter;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper,
+                              CacheManager cacheManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.lease:PT1M}") Duration lease) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.completedCache = cacheManager.getCache(IDEMPOTENCY_KEYS);
+        this.ttl = ttl;
+        this.lease = lease;
+        this.replayedCounter = Counter.builder("idempotency.replayed")
+                .description("Requests answered from a stored Idempotency-Key result")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per ({@code scope}, {@code key}). Without a key the action just runs.
+     */
+    public <T> ResponseObject<T> execute(String scope, String key, Object request, Class<T> bodyType,
+                                         Supplier<ResponseObject<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.BAD_REQUEST,
+                            ErrorCode.INVALID_IDEMPOTENCY_KEY,
+                            "Invalid Idempotency-Key",
+                            "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters")
+            );
+        }
+
+        String fingerprint = fingerprint(request);
+        IdempotencyKey.Id id = new IdempotencyKey.Id(scope, key);
+        Completed cached = completedCache.get(id, Completed.class);
+        if (cached != null) {
+            return replay(cached, fingerprint, bodyType);
+        }
+
+        long ttlSeconds = ttl.toSeconds();
+        if (idempotencyKeyRepository.claim(scope, key, fingerprint, ttlSeconds, lease.toSeconds()) == 0) {
+            IdempotencyKey existing = idempotencyKeyRepository.findById(id).orElse(null);
+            if (existing == null || existing.getResponse() == null) {
+                // Another request with this key is still running (or was purged a moment ago)
+                if (existing != null && !existing.getFingerprint().equals(fingerprint)) {
+                    return reused();
+                }
+                return ResponseObject.fail(
+                        new MessageError(HttpStatus.CONFLICT,
+                                ErrorCode.IDEMPOTENCY_IN_PROGRESS,
+                                "Request already in progress",
+                                "A request with this Idempotency-Key has not finished yet")
+                );
+            }
+            Completed completed = new Completed(existing.getFingerprint(), existing.getResponse());
+            completedCache.put(id, completed);
+            return replay(completed, fingerprint, bodyType);
+        }
+
+        ResponseObject<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(scope, key);
+            throw e;
+        }
+        if (result.hasError() && result.error().status().is5xxServerError()) {
+            idempotencyKeyRepository.release(scope, key);
+            return result;
+        }
+        String json = write(result);
+        idempotencyKeyRepository.complete(scope, key, json);
+        completedCache.put(id, new Completed(fingerprint, json));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT1H}",
+            initialDelayString = "${idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.purgeExpired();
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private <T> ResponseObject<T> replay(Completed completed, String fingerprint, Class<T> bodyType) {
+        if (!Objects.equals(completed.fingerprint(), fingerprint)) {
+            return reused();
+        }
+        replayedCounter.increment();
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(ResponseObject.class, bodyType);
+        try {
+            return objectMapper.readValue(completed.response(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private static <T> ResponseObject<T> reused() {
+        return ResponseObject.fail(
+                new MessageError(HttpStatus.UNPROCESSABLE_ENTITY,
+                        ErrorCode.IDEMPOTENCY_KEY_REUSED,
+                        "Idempotency-Key reused",
+                        "This Idempotency-Key was already used with a different request")
+        );
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String write(ResponseObject<?> result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotent response", e);
+        }
+    }
+}
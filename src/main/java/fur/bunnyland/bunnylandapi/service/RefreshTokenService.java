@@ -0,0 +1,133 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fur.bunnyland.bunnylandapi.domain.RefreshToken;
+import fur.bunnyland.bunnylandapi.domain.User;
+import fur.bunnyland.bunnylandapi.repository.RefreshTokenRepository;
+import fur.bunnyland.bunnylandapi.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens are single use. Login starts a family; each refresh spends the presented token and
+ * issues the next one in the same family. A spent token presented again means it was copied, so the
+ * whole family is revoked and both holders have to log in again. Logout revokes the family too.
+ * <p>
+ * Families revoked on this node are also kept in memory, so replays are turned away without a query.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    static final int PURGE_BATCH_SIZE = 1000;
+    static final int REVOKED_FAMILIES_SIZE = 100_000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Cache<UUID, Boolean> revokedFamilies;
+
+    private final Counter reuseCounter;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtUtil jwtUtil,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        // A family can't outlive its newest token
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(REVOKED_FAMILIES_SIZE)
+                .expireAfterWrite(Duration.ofSeconds(jwtUtil.getRefreshTtlSeconds()))
+                .build();
+        this.reuseCounter = Counter.builder("auth.refresh_tokens.reused")
+                .description("Spent refresh tokens presented again; their families were revoked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * First token of a new family, for a fresh login.
+     */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Spends the token behind {@code claims} and returns its successor, or empty if the token is
+     * spent, revoked, expired or unknown.
+     */
+    @Transactional
+    public Optional<String> rotate(Claims claims, User user) {
+        Optional<UUID> jti = uuid(claims.getId());
+        Optional<UUID> family = uuid(claims.get(JwtUtil.FAMILY_CLAIM, String.class));
+        if (jti.isEmpty() || family.isEmpty() || revokedFamilies.getIfPresent(family.get()) != null) {
+            return Optional.empty();
+        }
+        if (refreshTokenRepository.markUsed(jti.get()) == 1) {
+            return Optional.of(issue(user, family.get()));
+        }
+
+        Optional<RefreshToken> stored = refreshTokenRepository.findById(jti.get());
+        if (stored.isPresent() && stored.get().getUsedAt() != null && stored.get().getRevokedAt() == null) {
+            log.warn("Refresh token {} of user {} was used twice; revoking its family", jti.get(), user.getId());
+            reuseCounter.increment();
+            revokeFamily(family.get());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Logs out the session the token belongs to.
+     */
+    public void revoke(Claims claims) {
+        uuid(claims.get(JwtUtil.FAMILY_CLAIM, String.class)).ifPresent(this::revokeFamily);
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.refresh-token-purge.interval:PT1H}",
+            initialDelayString = "${jobs.refresh-token-purge.initial-delay:PT10M}")
+    public void purgeExpired() {
+        int total = 0;
+        int purged;
+        do {
+            purged = refreshTokenRepository.purgeExpired(PURGE_BATCH_SIZE);
+            total += purged;
+        } while (purged == PURGE_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private String issue(User user, UUID family) {
+        UUID jti = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plusSeconds(jwtUtil.getRefreshTtlSeconds());
+        refreshTokenRepository.insert(jti, family, user.getId(), expiresAt);
+        return jwtUtil.generateRefreshToken(user.getId(), user.getEmail(), jti, family);
+    }
+
+    private void revokeFamily(UUID family) {
+        revokedFamilies.put(family, Boolean.TRUE);
+        refreshTokenRepository.revokeFamily(family);
+    }
+
+    // Tokens issued before the store existed carry no jti or family
+    private static Optional<UUID> uuid(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(value));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
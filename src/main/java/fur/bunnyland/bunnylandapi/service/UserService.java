@@ -5,10 +5,12 @@ import fur.bunnyland.bunnylandapi.domain.MessageError;
 import fur.bunnyland.bunnylandapi.domain.ResponseObject;
 import fur.bunnyland.bunnylandapi.domain.User;
 import fur.bunnyland.bunnylandapi.repository.UserRepository;
+import fur.bunnyland.bunnylandapi.security.AuthenticatedUser;
 import fur.bunnyland.bunnylandapi.security.JwtUtil;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,18 +18,21 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static fur.bunnyland.bunnylandapi.domain.ErrorCode.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
 
-    @Transactional
+    // Not transactional: no pooled connection is held while waiting for a hashing slot
     public ResponseObject<RegisterResponse> registerOwner(RegisterRequest request) {
         if (userRepository.existsByEmail(request.email())) {
             return ResponseObject.fail(
@@ -37,9 +42,16 @@ public class UserService {
                             "User other email, or log in"));
         }
 
+        String passwordHash;
+        try {
+            passwordHash = passwordEncoder.encode(request.password());
+        } catch (RejectedExecutionException e) {
+            return busy();
+        }
+
         User user = new User();
         user.setEmail(request.email());
-        user.setPasswordHash(passwordEncoder.encode(request.password()));
+        user.setPasswordHash(passwordHash);
         user.setDisplayName(request.displayName());
         user.setCity(request.city());
         user.setCountry(request.country());
@@ -55,7 +67,7 @@ public class UserService {
         return ResponseObject.ok(response);
     }
 
-    @Transactional(readOnly = true)
+    // Not transactional, for the same reason as registerOwner
     public ResponseObject<LoginResponse> login(LoginRequest request) {
         Optional<User> userOptional = userRepository.findByEmailIgnoreCase(request.email());
         if (userOptional.isEmpty()) {
@@ -66,21 +78,30 @@ public class UserService {
                             "Register first or enter with different email"));
         }
         User user = userOptional.get();
-        if (!passwordEncoder.matches(request.password(), user.getPasswordHash())) {
+        boolean matches;
+        try {
+            matches = passwordEncoder.matches(request.password(), user.getPasswordHash());
+        } catch (RejectedExecutionException e) {
+            return busy();
+        }
+        if (!matches) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.UNAUTHORIZED,
                             INVALID_CREDENTIALS,
                             "Invalid email or password",
                             "Check the password and email you have entered"));
         }
+        if (passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            rehash(user, request.password());
+        }
         String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getEmail(), user.getRoles());
-        String refreshToken = jwtUtil.generateRefreshToken(user.getId(), user.getEmail());
+        String refreshToken = refreshTokenService.issue(user);
         long expiresIn      = jwtUtil.getAccessTtlSeconds();
 
         return ResponseObject.ok(new LoginResponse(user.getId(), user.getEmail(), user.getRoles(), accessToken, refreshToken, expiresIn));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional
     public ResponseObject<RefreshResponse> refresh(RefreshRequest request) {
         try {
             Claims claims = jwtUtil.parseRefreshToken(request.refreshToken());
@@ -98,9 +119,18 @@ public class UserService {
             }
             User user = userOptional.get();
 
+            Optional<String> rotated = refreshTokenService.rotate(claims, user);
+            if (rotated.isEmpty()) {
+                return ResponseObject.fail(
+                        new MessageError(HttpStatus.UNAUTHORIZED,
+                                INVALID_REFRESH_TOKEN,
+                                "Invalid or expired refresh token",
+                                "Refresh token has already been used or revoked, log in again"));
+            }
+            String refreshToken = rotated.get();
+
             String newAccessToken = jwtUtil.generateAccessToken(user.getId(), user.getEmail(), user.getRoles());
             long expiresIn = jwtUtil.getAccessTtlSeconds();
-            String refreshToken = jwtUtil.generateRefreshToken(userId, user.getEmail());
 
             RefreshResponse body = new RefreshResponse(
                     user.getId(),
@@ -120,37 +150,57 @@ public class UserService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public ResponseObject<ProfileResponse> me(String accessToken) {
+    public ResponseObject<Void> logout(RefreshRequest request) {
         try {
-            Claims claims = jwtUtil.parseAccessToken(accessToken);
-            Long userId = claims.get("id", Long.class);
-
-            Optional<User> userOptional = userRepository.findById(userId);
-            if (userOptional.isEmpty()) {
-                return ResponseObject.fail(
-                        new MessageError(HttpStatus.UNAUTHORIZED,
-                                USER_NOT_FOUND,
-                                "User not found",
-                                "No user found with this id " + userId));
-            }
-            User user = userOptional.get();
-
-            ProfileResponse body = new ProfileResponse(
-                    user.getId(),
-                    user.getEmail(),
-                    user.getDisplayName(),
-                    user.getCity(),
-                    user.getCountry(),
-                    user.getRoles().stream().map(Role::valueOf).collect(Collectors.toSet())
-            );
-            return ResponseObject.ok(body);
+            refreshTokenService.revoke(jwtUtil.parseRefreshToken(request.refreshToken()));
+            return ResponseObject.ok(null);
         } catch (JwtException e) {
             return ResponseObject.fail(
                     new MessageError(HttpStatus.UNAUTHORIZED,
-                            INVALID_CREDENTIALS,
-                            "Invalid or expired access token",
+                            INVALID_REFRESH_TOKEN,
+                            "Invalid or expired refresh token",
                             e.getMessage()));
         }
     }
+
+    @Transactional(readOnly = true)
+    public ResponseObject<ProfileResponse> me(AuthenticatedUser caller) {
+        Optional<User> userOptional = userRepository.findById(caller.id());
+        if (userOptional.isEmpty()) {
+            return ResponseObject.fail(
+                    new MessageError(HttpStatus.UNAUTHORIZED,
+                            USER_NOT_FOUND,
+                            "User not found",
+                            "No user found with this id " + caller.id()));
+        }
+        User user = userOptional.get();
+
+        ProfileResponse body = new ProfileResponse(
+                user.getId(),
+                user.getEmail(),
+                user.getDisplayName(),
+                user.getCity(),
+                user.getCountry(),
+                user.getRoles().stream().map(Role::valueOf).collect(Collectors.toSet())
+        );
+        return ResponseObject.ok(body);
+    }
+
+    // The configured strength went up since this hash was made; best effort, the next login retries
+    private void rehash(User user, String password) {
+        try {
+            user.setPasswordHash(passwordEncoder.encode(password));
+            userRepository.save(user);
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipped rehash of user {}: hashing pool busy", user.getId());
+        }
+    }
+
+    private static <T> ResponseObject<T> busy() {
+        return ResponseObject.fail(
+                new MessageError(HttpStatus.SERVICE_UNAVAILABLE,
+                        SERVICE_BUSY,
+                        "Too many sign-ins right now",
+                        "Try again in a moment"));
+    }
 }
@@ -0,0 +1,63 @@
+-- Optional coordinates for proximity search, plus a local city lookup used to fill them in
+create table city_coordinates (
+    id        bigserial primary key,
+    city      varchar(120)     not null,
+    country   varchar(120)     not null,
+    latitude  double precision not null,
+    longitude double precision not null
+);
+
+create unique index idx_city_coordinates_name on city_coordinates (lower(city), lower(country));
+
+insert into city_coordinates (city, country, latitude, longitude) values
+    ('Berlin', 'Germany', 52.5200, 13.4050),
+    ('Hamburg', 'Germany', 53.5511, 9.9937),
+    ('Munich', 'Germany', 48.1351, 11.5820),
+    ('Cologne', 'Germany', 50.9375, 6.9603),
+    ('Frankfurt', 'Germany', 50.1109, 8.6821),
+    ('Stuttgart', 'Germany', 48.7758, 9.1829),
+    ('Düsseldorf', 'Germany', 51.2277, 6.7735),
+    ('Leipzig', 'Germany', 51.3397, 12.3731),
+    ('Dresden', 'Germany', 51.0504, 13.7373),
+    ('Hanover', 'Germany', 52.3759, 9.7320),
+    ('Bremen', 'Germany', 53.0793, 8.8017),
+    ('Vienna', 'Austria', 48.2082, 16.3738),
+    ('Zurich', 'Switzerland', 47.3769, 8.5417),
+    ('Amsterdam', 'Netherlands', 52.3676, 4.9041),
+    ('Rotterdam', 'Netherlands', 51.9244, 4.4777),
+    ('Brussels', 'Belgium', 50.8503, 4.3517),
+    ('Paris', 'France', 48.8566, 2.3522),
+    ('Lyon', 'France', 45.7640, 4.8357),
+    ('London', 'United Kingdom', 51.5072, -0.1276),
+    ('Manchester', 'United Kingdom', 53.4808, -2.2426),
+    ('Dublin', 'Ireland', 53.3498, -6.2603),
+    ('Madrid', 'Spain', 40.4168, -3.7038),
+    ('Barcelona', 'Spain', 41.3874, 2.1686),
+    ('Lisbon', 'Portugal', 38.7223, -9.1393),
+    ('Rome', 'Italy', 41.9028, 12.4964),
+    ('Milan', 'Italy', 45.4642, 9.1900),
+    ('Copenhagen', 'Denmark', 55.6761, 12.5683),
+    ('Stockholm', 'Sweden', 59.3293, 18.0686),
+    ('Oslo', 'Norway', 59.9139, 10.7522),
+    ('Helsinki', 'Finland', 60.1699, 24.9384),
+    ('Warsaw', 'Poland', 52.2297, 21.0122),
+    ('Krakow', 'Poland', 50.0647, 19.9450),
+    ('Prague', 'Czechia', 50.0755, 14.4378),
+    ('Budapest', 'Hungary', 47.4979, 19.0402),
+    ('Kyiv', 'Ukraine', 50.4501, 30.5234),
+    ('Lviv', 'Ukraine', 49.8397, 24.0297),
+    ('New York', 'United States', 40.7128, -74.0060),
+    ('Toronto', 'Canada', 43.6532, -79.3832);
+
+alter table announcements
+    add column latitude  double precision check (latitude between -90 and 90),
+    add column longitude double precision check (longitude between -180 and 180),
+    add constraint chk_ann_location_pair check ((latitude is null) = (longitude is null));
+
+update announcements a
+   set latitude = c.latitude, longitude = c.longitude
+  from city_coordinates c
+ where lower(a.city) = lower(c.city) and lower(a.country) = lower(c.country);
+
+-- Bounding-box prefilter for radius search: range on latitude, longitude checked from the index
+create index idx_ann_open_location on announcements (latitude, longitude) where status = 'OPEN';
@@ -0,0 +1,43 @@
+-- Facet counts per (status, city, country), kept in step with announcements by trigger
+-- so the facet endpoint never scans announcements. Missing city/country are stored as ''.
+create table announcement_counts (
+    status        varchar(20)  not null,
+    city          varchar(120) not null default '',
+    country       varchar(120) not null default '',
+    announcements bigint       not null default 0,
+    primary key (status, city, country)
+);
+
+insert into announcement_counts (status, city, country, announcements)
+select status, coalesce(city, ''), coalesce(country, ''), count(*)
+from announcements
+group by status, coalesce(city, ''), coalesce(country, '');
+
+create function announcement_counts_apply() returns trigger language plpgsql as $$
+begin
+    if tg_op in ('UPDATE', 'DELETE') then
+        update announcement_counts
+           set announcements = announcements - 1
+         where status = old.status and city = coalesce(old.city, '') and country = coalesce(old.country, '');
+    end if;
+    if tg_op in ('INSERT', 'UPDATE') then
+        insert into announcement_counts (status, city, country, announcements)
+        values (new.status, coalesce(new.city, ''), coalesce(new.country, ''), 1)
+        on conflict (status, city, country) do update
+            set announcements = announcement_counts.announcements + 1;
+    end if;
+    return null;
+end $$;
+
+create trigger trg_announcement_counts_insert_delete
+    after insert or delete on announcements
+    for each row execute function announcement_counts_apply();
+
+-- Most updates (title, description, change tracking) leave the facets alone
+create trigger trg_announcement_counts_update
+    after update of status, city, country on announcements
+    for each row
+    when (old.status is distinct from new.status
+          or old.city is distinct from new.city
+          or old.country is distinct from new.country)
+    execute function announcement_counts_apply();
@@ -0,0 +1,2 @@
+-- Expiry only ever looks at OPEN rows past their end date
+create index idx_ann_open_end_date on announcements (end_date) where status = 'OPEN';
@@ -0,0 +1,9 @@
+-- Lease-based leader lock for scheduled jobs: a node owns a job until locked_until,
+-- renewing the lease while it works; a crashed owner simply lets it run out.
+create table job_locks (
+    name         varchar(64)  primary key,
+    locked_by    varchar(128),
+    locked_until timestamptz  not null default '-infinity'
+);
+
+insert into job_locks (name) values ('announcement-expiry');
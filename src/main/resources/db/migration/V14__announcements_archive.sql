@@ -0,0 +1,44 @@
+-- Cold storage for announcements that left OPEN a while ago. The archive job moves them here
+-- together with their applications, so announcements and its indexes only carry live rows.
+create table announcements_archive (
+    id             bigint primary key,
+    owner_id       bigint       not null references users(id) on delete cascade,
+    title          varchar(200) not null,
+    description    text         not null,
+    city           varchar(120),
+    country        varchar(120),
+    start_date     date,
+    end_date       date,
+    status         varchar(20)  not null,
+    created_at     timestamp    not null,
+    latitude       double precision,
+    longitude      double precision,
+    change_version bigint       not null,
+    updated_at     timestamptz  not null,
+    archived_at    timestamptz  not null default now()
+);
+
+-- Admin browsing, newest first (same keyset as the live list)
+create index idx_ann_archive_created on announcements_archive (created_at desc, id desc);
+create index idx_ann_archive_owner on announcements_archive (owner_id);
+
+create table announcement_applications_archive (
+    id              bigint       primary key,
+    announcement_id bigint       not null references announcements_archive(id) on delete cascade,
+    message         text         not null,
+    contact         varchar(200) not null,
+    created_at      timestamp    not null
+);
+
+create index idx_app_archive_announcement on announcement_applications_archive (announcement_id);
+
+-- Archive candidates, found without walking OPEN rows
+create index idx_ann_retired_updated on announcements (updated_at) where status <> 'OPEN';
+
+-- Status totals in announcement_counts keep including archived rows:
+-- the move decrements on delete from announcements and increments again here
+create trigger trg_announcements_archive_counts
+    after insert or delete on announcements_archive
+    for each row execute function announcement_counts_apply();
+
+insert into job_locks (name) values ('announcement-archive');
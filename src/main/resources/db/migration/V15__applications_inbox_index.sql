@@ -0,0 +1,4 @@
+-- Owner inbox: applications of an announcement newest first, keyset on (created_at, id).
+-- Its leading column also covers the foreign key lookups idx_app_announcement served.
+create index idx_app_announcement_created on announcement_applications (announcement_id, created_at desc, id desc);
+drop index idx_app_announcement;
@@ -0,0 +1,49 @@
+-- Owner and status of the parent announcement, copied onto every application so the
+-- owner inbox is one range scan on announcement_applications instead of a join.
+alter table announcement_applications
+    add column owner_id            bigint,
+    add column announcement_status varchar(20);
+
+update announcement_applications app
+   set owner_id = a.owner_id, announcement_status = a.status
+  from announcements a
+ where a.id = app.announcement_id;
+
+alter table announcement_applications
+    alter column owner_id set not null,
+    alter column announcement_status set not null;
+
+-- FOR SHARE waits for an in-flight owner/status change on the announcement, so a new
+-- application never copies values that the follow-up trigger below would then miss.
+create function announcement_applications_inherit() returns trigger language plpgsql as $$
+begin
+    select a.owner_id, a.status
+      into new.owner_id, new.announcement_status
+      from announcements a
+     where a.id = new.announcement_id
+       for share;
+    return new;
+end $$;
+
+create trigger trg_announcement_applications_inherit
+    before insert or update of announcement_id on announcement_applications
+    for each row execute function announcement_applications_inherit();
+
+create function announcement_applications_follow() returns trigger language plpgsql as $$
+begin
+    update announcement_applications
+       set owner_id = new.owner_id, announcement_status = new.status
+     where announcement_id = new.id;
+    return null;
+end $$;
+
+create trigger trg_announcements_applications_follow
+    after update of owner_id, status on announcements
+    for each row
+    when (old.owner_id is distinct from new.owner_id or old.status is distinct from new.status)
+    execute function announcement_applications_follow();
+
+-- Status is a column rather than a partial-index predicate because inbox queries bind it as a parameter
+create index idx_app_owner_inbox
+    on announcement_applications (owner_id, announcement_status, created_at desc, id desc)
+    include (announcement_id);
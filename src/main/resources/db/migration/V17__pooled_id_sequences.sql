@@ -0,0 +1,6 @@
+-- Hibernate now takes ids from these sequences in blocks of 50 (pooled optimizer: each nextval
+-- is the top of a block), so inserts no longer need a round trip each and can be batched.
+-- Column defaults still call nextval, so plain SQL inserts keep working and never collide.
+alter sequence users_id_seq increment by 50;
+alter sequence announcements_id_seq increment by 50;
+alter sequence announcement_applications_id_seq increment by 50;
@@ -0,0 +1,38 @@
+-- Number of applications per announcement, kept by triggers on announcement_applications.
+alter table announcements add column application_count integer not null default 0;
+
+update announcements a
+   set application_count = c.n
+  from (select announcement_id, count(*) as n from announcement_applications group by announcement_id) c
+ where a.id = c.announcement_id;
+
+alter table announcements_archive add column application_count integer not null default 0;
+
+-- Replaces the V16 version: the increment locks the announcement row and returns its current
+-- owner and status in one step. Reading them FOR SHARE first and updating afterwards would let
+-- two concurrent applies deadlock while both upgrade their lock.
+create or replace function announcement_applications_inherit() returns trigger language plpgsql as $$
+begin
+    if tg_op = 'UPDATE' then
+        if new.announcement_id = old.announcement_id then
+            return new;
+        end if;
+        update announcements set application_count = application_count - 1 where id = old.announcement_id;
+    end if;
+    update announcements
+       set application_count = application_count + 1
+     where id = new.announcement_id
+    returning owner_id, status into new.owner_id, new.announcement_status;
+    return new;
+end $$;
+
+-- When the announcement itself is being deleted (cascade, archive mover) the update finds no row
+create function announcement_applications_uncount() returns trigger language plpgsql as $$
+begin
+    update announcements set application_count = application_count - 1 where id = old.announcement_id;
+    return null;
+end $$;
+
+create trigger trg_announcement_applications_uncount
+    after delete on announcement_applications
+    for each row execute function announcement_applications_uncount();
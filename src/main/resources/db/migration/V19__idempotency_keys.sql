@@ -0,0 +1,14 @@
+-- Idempotency-Key records for retried POSTs. A row is claimed (response null) before the
+-- request runs and completed with the serialized ResponseObject once it has; rows past
+-- expires_at are purged and may be claimed again.
+create table idempotency_keys (
+    scope           varchar(100) not null,
+    idempotency_key varchar(255) not null,
+    fingerprint     varchar(64)  not null,
+    response        text,
+    created_at      timestamptz  not null default now(),
+    expires_at      timestamptz  not null,
+    primary key (scope, idempotency_key)
+);
+
+create index idx_idempotency_keys_expires on idempotency_keys (expires_at);
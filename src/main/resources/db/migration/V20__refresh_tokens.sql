@@ -0,0 +1,15 @@
+-- One row per issued refresh token, looked up by its jti. Rotation marks the presented token used
+-- and issues the next one in the same family; presenting a used token again means it leaked, and
+-- the whole family is revoked. Expired rows are purged in batches.
+create table refresh_tokens (
+    jti         uuid         primary key,
+    family_id   uuid         not null,
+    user_id     bigint       not null references users (id) on delete cascade,
+    created_at  timestamptz  not null default now(),
+    expires_at  timestamptz  not null,
+    used_at     timestamptz,
+    revoked_at  timestamptz
+);
+
+create index idx_refresh_tokens_family on refresh_tokens (family_id);
+create index idx_refresh_tokens_expires on refresh_tokens (expires_at);
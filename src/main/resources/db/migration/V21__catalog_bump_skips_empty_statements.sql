@@ -0,0 +1,43 @@
+-- Replaces the V8 catalog trigger. A statement that inserts, updates or deletes nothing (an empty
+-- expiry chunk, an update whose WHERE matched no row) no longer moves the catalog version, so it
+-- neither invalidates list ETags nor takes the catalog row lock. Transition tables are only
+-- allowed on single-event triggers, hence one trigger per event.
+drop trigger trg_announcements_catalog on announcements;
+
+create or replace function announcement_catalog_bump() returns trigger language plpgsql as $$
+begin
+    -- Nested ifs: each trigger only has the transition table of its own event
+    if tg_op in ('INSERT', 'UPDATE') then
+        if not exists (select 1 from new_rows) then
+            return null;
+        end if;
+    elsif tg_op = 'DELETE' then
+        if not exists (select 1 from old_rows) then
+            return null;
+        end if;
+    end if;
+    update announcement_catalog
+       set version    = nextval('announcement_change_seq'),
+           changed_at = clock_timestamp()
+     where id = 1;
+    return null;
+end $$;
+
+create trigger trg_announcements_catalog_insert
+    after insert on announcements
+    referencing new table as new_rows
+    for each statement execute function announcement_catalog_bump();
+
+create trigger trg_announcements_catalog_update
+    after update on announcements
+    referencing new table as new_rows
+    for each statement execute function announcement_catalog_bump();
+
+create trigger trg_announcements_catalog_delete
+    after delete on announcements
+    referencing old table as old_rows
+    for each statement execute function announcement_catalog_bump();
+
+create trigger trg_announcements_catalog_truncate
+    after truncate on announcements
+    for each statement execute function announcement_catalog_bump();
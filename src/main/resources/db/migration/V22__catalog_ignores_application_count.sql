@@ -0,0 +1,42 @@
+-- Applying to an announcement bumps its application_count (V18). That update used to move the
+-- catalog too, so every apply locked the single announcement_catalog row until commit: applies to
+-- different announcements queued behind one another, a batch insert could deadlock with a single
+-- apply, and every apply invalidated the list ETag and list cache.
+--
+-- Only the V18 counter triggers change application_count (the entity maps it read-only), and they
+-- set nothing else, so an UPDATE statement whose rows all changed their count is a counter update
+-- and is left out of the catalog. The row itself is still touched: the single-announcement ETag
+-- has to move because the body carries the count. List responses may show an older count until
+-- the next real change to the catalog.
+drop trigger trg_announcements_catalog_update on announcements;
+
+create or replace function announcement_catalog_bump() returns trigger language plpgsql as $$
+begin
+    -- Nested ifs: each trigger only has the transition tables of its own event
+    if tg_op = 'INSERT' then
+        if not exists (select 1 from new_rows) then
+            return null;
+        end if;
+    elsif tg_op = 'UPDATE' then
+        if not exists (select 1
+                         from new_rows n
+                         join old_rows o on o.id = n.id
+                        where n.application_count = o.application_count) then
+            return null;
+        end if;
+    elsif tg_op = 'DELETE' then
+        if not exists (select 1 from old_rows) then
+            return null;
+        end if;
+    end if;
+    update announcement_catalog
+       set version    = nextval('announcement_change_seq'),
+           changed_at = clock_timestamp()
+     where id = 1;
+    return null;
+end $$;
+
+create trigger trg_announcements_catalog_update
+    after update on announcements
+    referencing new table as new_rows old table as old_rows
+    for each statement execute function announcement_catalog_bump();
@@ -0,0 +1,51 @@
+-- Replaces the single announcement_catalog row as the thing writers touch. Updating that row held
+-- its lock until commit, so every transaction writing to announcements queued behind every other
+-- one cluster-wide, and multi-statement transactions could deadlock on it.
+--
+-- Writers now insert one row per transaction into announcement_catalog_changes, keyed by their own
+-- transaction id, so no two writers ever wait on each other. The catalog version is the folded base
+-- plus the number of committed change rows. Every commit adds a row, so the version moves with every
+-- committed write, in whatever order transactions commit, and never repeats. A plain
+-- max(change_version) would not: a transaction that drew an older version but commits later leaves
+-- the maximum where it was. AnnouncementService folds committed rows into the base periodically.
+create table announcement_catalog_changes (
+    txid       xid8        primary key,
+    changed_at timestamptz not null default clock_timestamp()
+);
+
+alter table announcement_catalog rename to announcement_catalog_base;
+
+-- One snapshot for base and log, so a concurrent fold is seen either entirely or not at all
+create view announcement_catalog as
+select b.id,
+       b.version + c.changes                 as version,
+       greatest(b.changed_at, c.last_change) as changed_at
+  from announcement_catalog_base b
+ cross join (select count(*) as changes, max(changed_at) as last_change
+               from announcement_catalog_changes) c;
+
+create or replace function announcement_catalog_bump() returns trigger language plpgsql as $$
+begin
+    -- Nested ifs: each trigger only has the transition tables of its own event
+    if tg_op = 'INSERT' then
+        if not exists (select 1 from new_rows) then
+            return null;
+        end if;
+    elsif tg_op = 'UPDATE' then
+        if not exists (select 1
+                         from new_rows n
+                         join old_rows o on o.id = n.id
+                        where n.application_count = o.application_count) then
+            return null;
+        end if;
+    elsif tg_op = 'DELETE' then
+        if not exists (select 1 from old_rows) then
+            return null;
+        end if;
+    end if;
+    -- Only this transaction can hold this key, so the conflict never waits
+    insert into announcement_catalog_changes (txid)
+    values (pg_current_xact_id())
+    on conflict (txid) do nothing;
+    return null;
+end $$;
@@ -0,0 +1,29 @@
+-- Undoes the V22 exception. List responses carry application_count, and the catalog version is
+-- their ETag and cache key, so a counter update has to move it like any other change: otherwise a
+-- list with new counts is answered 304 until some unrelated write comes along. Since V23 a bump is
+-- an uncontended insert, so counter updates no longer queue behind one another for it.
+drop trigger trg_announcements_catalog_update on announcements;
+
+create or replace function announcement_catalog_bump() returns trigger language plpgsql as $$
+begin
+    -- Nested ifs: each trigger only has the transition table of its own event
+    if tg_op in ('INSERT', 'UPDATE') then
+        if not exists (select 1 from new_rows) then
+            return null;
+        end if;
+    elsif tg_op = 'DELETE' then
+        if not exists (select 1 from old_rows) then
+            return null;
+        end if;
+    end if;
+    -- Only this transaction can hold this key, so the conflict never waits
+    insert into announcement_catalog_changes (txid)
+    values (pg_current_xact_id())
+    on conflict (txid) do nothing;
+    return null;
+end $$;
+
+create trigger trg_announcements_catalog_update
+    after update on announcements
+    referencing new table as new_rows
+    for each statement execute function announcement_catalog_bump();
@@ -0,0 +1,2 @@
+-- Serves GET /api/announcements?limit=&cursor= (keyset on created_at, id within a status)
+create index idx_ann_status_created on announcements(status, created_at desc, id desc);
@@ -0,0 +1,8 @@
+-- Search filters always include status and order by created_at desc, id desc.
+-- The single-column city/country indexes never matched that shape.
+drop index idx_ann_city;
+drop index idx_ann_country;
+
+create index idx_ann_status_city_created on announcements(status, lower(city), created_at desc, id desc);
+create index idx_ann_status_country_created on announcements(status, lower(country), created_at desc, id desc);
+create index idx_ann_status_start_date on announcements(status, start_date);
@@ -0,0 +1,8 @@
+-- Keyword search over title (weight A) and description (weight B)
+alter table announcements
+    add column search_vector tsvector generated always as (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) stored;
+
+create index idx_ann_search_vector on announcements using gin (search_vector);
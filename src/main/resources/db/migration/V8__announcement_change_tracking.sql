@@ -0,0 +1,51 @@
+-- Change tracking for conditional GETs.
+-- Every insert/update stamps the row with a fresh change_version and updated_at;
+-- announcement_catalog moves on with every write to the table.
+create sequence announcement_change_seq;
+
+alter table announcements
+    add column change_version bigint,
+    add column updated_at     timestamptz;
+
+update announcements
+   set change_version = nextval('announcement_change_seq'),
+       updated_at     = now();
+
+alter table announcements
+    alter column change_version set not null,
+    alter column updated_at     set not null;
+
+create function announcements_touch() returns trigger language plpgsql as $$
+begin
+    new.change_version := nextval('announcement_change_seq');
+    new.updated_at := clock_timestamp();
+    return new;
+end $$;
+
+create trigger trg_announcements_touch
+    before insert or update on announcements
+    for each row execute function announcements_touch();
+
+create table announcement_catalog (
+    id         smallint primary key check (id = 1),
+    version    bigint    not null,
+    changed_at timestamptz not null
+);
+
+insert into announcement_catalog (id, version, changed_at)
+values (1, nextval('announcement_change_seq'), now());
+
+-- The catalog row stays locked until the writing transaction commits, so versions
+-- are handed out in commit order and a reader never sees one before its data.
+create function announcement_catalog_bump() returns trigger language plpgsql as $$
+begin
+    update announcement_catalog
+       set version    = nextval('announcement_change_seq'),
+           changed_at = clock_timestamp()
+     where id = 1;
+    return null;
+end $$;
+
+create trigger trg_announcements_catalog
+    after insert or update or delete or truncate on announcements
+    for each statement execute function announcement_catalog_bump();
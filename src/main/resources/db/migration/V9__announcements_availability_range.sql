@@ -0,0 +1,12 @@
+-- "Overlaps my availability" search: start_date..end_date as one inclusive daterange.
+-- Rows without both dates (or with end_date before start_date) have no window and never match.
+alter table announcements
+    add column availability daterange generated always as (
+        case
+            when start_date is null or end_date is null or end_date < start_date then null
+            else daterange(start_date, end_date, '[]')
+        end
+    ) stored;
+
+-- Only OPEN announcements are ever searched
+create index idx_ann_open_availability on announcements using gist (availability) where status = 'OPEN';
@@ -0,0 +1,56 @@
+package fur.bunnyland.bunnylandapi;
+
+import fur.bunnyland.bunnylandapi.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+class ActuatorSecurityIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsRequireLogin() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/jvm.memory.used"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void metricsAreForbiddenToOwners() throws Exception {
+        String token = jwtUtil.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void metricsAreReadableByAdmins() throws Exception {
+        String token = jwtUtil.generateAccessToken(1L, "admin@bunnyland.com", Set.of("ADMIN"));
+
+        mockMvc.perform(get("/actuator/metrics/jvm.memory.used").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
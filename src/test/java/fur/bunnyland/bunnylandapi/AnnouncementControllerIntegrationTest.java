@@ -1,28 +1,62 @@
 package fur.bunnyland.bunnylandapi;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fur.bunnyland.bunnylandapi.api.dto.announce.CreateAnnouncementRequest;
+import fur.bunnyland.bunnylandapi.config.CacheConfig;
 import fur.bunnyland.bunnylandapi.domain.Announcement;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementApplication;
 import fur.bunnyland.bunnylandapi.domain.AnnouncementStatus;
+import fur.bunnyland.bunnylandapi.domain.CityCoordinates;
 import fur.bunnyland.bunnylandapi.domain.User;
 import fur.bunnyland.bunnylandapi.repository.AnnouncementRepository;
 import fur.bunnyland.bunnylandapi.repository.AnnouncementApplicationRepository;
+import fur.bunnyland.bunnylandapi.repository.ArchivedAnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.CityCoordinatesRepository;
+import fur.bunnyland.bunnylandapi.repository.JobLockRepository;
 import fur.bunnyland.bunnylandapi.repository.UserRepository;
+import fur.bunnyland.bunnylandapi.security.JwtUtil;
+import fur.bunnyland.bunnylandapi.service.AnnouncementArchiveJob;
+import fur.bunnyland.bunnylandapi.service.AnnouncementExpiryJob;
+import fur.bunnyland.bunnylandapi.service.AnnouncementService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -42,9 +76,48 @@ class AnnouncementControllerIntegrationTest {
     @Autowired
     private AnnouncementApplicationRepository announcementApplicationRepository;
 
+    @Autowired
+    private ArchivedAnnouncementRepository archivedAnnouncementRepository;
+
+    @Autowired
+    private AnnouncementArchiveJob announcementArchiveJob;
+
+    @Autowired
+    private AnnouncementExpiryJob announcementExpiryJob;
+
+    @Autowired
+    private AnnouncementService announcementService;
+
+    @Autowired
+    private CityCoordinatesRepository cityCoordinatesRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Fixtures are written straight through the repositories, past the service's cache eviction
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
     @Test
     void createPersistsAnnouncement() throws Exception {
         announcementRepository.deleteAll();
@@ -82,15 +155,700 @@ class AnnouncementControllerIntegrationTest {
     }
 
     @Test
-    void createReturnsUnauthorizedWithoutToken() throws Exception {
-        mockMvc.perform(post("/api/announcements")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content("{\"title\":\"t\",\"description\":\"d\"}"))
-                .andExpect(status().isUnauthorized());
+    void createWithIdempotencyKeyReplaysTheFirstResult() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"owner@example.com\",\"password\":\"pw\",\"displayName\":\"Owner\"}"))
+                .andExpect(status().isCreated());
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"owner@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String token = objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("body").get("body").get("accessToken").asText();
+        String key = UUID.randomUUID().toString();
+
+        CreateAnnouncementRequest req = new CreateAnnouncementRequest(
+                "title", "desc", "city", "country",
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+
+        MvcResult first = mockMvc.perform(post("/api/announcements")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(first.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(post("/api/announcements")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/announcements/" + id))
+                .andExpect(jsonPath("$.id").value(id));
+
+        // Same key, different body
+        CreateAnnouncementRequest other = new CreateAnnouncementRequest(
+                "other", "desc", "city", "country",
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+        mockMvc.perform(post("/api/announcements")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(announcementRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createReturnsUnauthorizedWithoutToken() throws Exception {
+        mockMvc.perform(post("/api/announcements")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"t\",\"description\":\"d\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void listReturnsAllAnnouncements() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("title1");
+        a.setDescription("desc1");
+        announcementRepository.save(a);
+
+        mockMvc.perform(get("/api/announcements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("title1"))
+                .andExpect(jsonPath("$[0].ownerId").value(owner.getId()));
+    }
+
+    @Test
+    void exportStreamsOpenAnnouncementsAsNdjson() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        for (int i = 0; i < 3; i++) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle("title" + i);
+            a.setDescription("desc" + i);
+            announcementRepository.save(a);
+        }
+        Announcement closed = new Announcement();
+        closed.setOwner(owner);
+        closed.setTitle("closed");
+        closed.setDescription("desc");
+        closed.setStatus(AnnouncementStatus.CLOSED.name());
+        announcementRepository.save(closed);
+
+        MvcResult started = mockMvc.perform(get("/api/announcements/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(lines[i]).startsWith("{");
+            assertThat(objectMapper.readTree(lines[i]).get("title").asText()).isEqualTo("title" + i);
+        }
+    }
+
+    @Test
+    void conditionalGetAnswersNotModifiedUntilAnnouncementChanges() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("title");
+        a.setDescription("desc");
+        a = announcementRepository.save(a);
+
+        MvcResult one = mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String oneTag = one.getResponse().getHeader("ETag");
+        MvcResult list = mockMvc.perform(get("/api/announcements"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String listTag = list.getResponse().getHeader("ETag");
+        assertThat(oneTag).isNotBlank();
+        assertThat(listTag).isNotBlank();
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()).header("If-None-Match", oneTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/announcements").header("If-None-Match", listTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/announcements").header("If-Modified-Since", list.getResponse().getHeader("Last-Modified")))
+                .andExpect(status().isNotModified());
+
+        a.setTitle("changed");
+        announcementRepository.save(a);
+        clearCaches();
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()).header("If-None-Match", oneTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("changed"));
+        mockMvc.perform(get("/api/announcements").header("If-None-Match", listTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("changed"));
+    }
+
+    @Test
+    void writesThatMatchNoRowKeepTheListEtag() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("title");
+        a.setDescription("desc");
+        announcementRepository.save(a);
+
+        String listTag = mockMvc.perform(get("/api/announcements"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // nothing has ended yet, and nothing is left to delete: both statements touch zero rows
+        assertThat(announcementRepository.closeExpiredChunk(LocalDate.now(), 1000)).isZero();
+        announcementRepository.deleteAllByIdInBatch(List.of(-1L));
+
+        mockMvc.perform(get("/api/announcements").header("If-None-Match", listTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void writersOnDifferentAnnouncementsNeitherWaitNorHideEachOthersCommit() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        List<Long> ids = new ArrayList<>();
+        for (String title : List.of("a", "b")) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle(title);
+            a.setDescription("d");
+            ids.add(announcementRepository.save(a).getId());
+        }
+
+        String listTag;
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            for (Connection c : List.of(first, second)) {
+                try (Statement st = c.createStatement()) {
+                    st.execute("set lock_timeout = '2s'");
+                }
+            }
+
+            // the first writer draws the older change version but commits last
+            renameAnnouncement(first, ids.get(0), "a2");
+            renameAnnouncement(second, ids.get(1), "b2");
+            second.commit();
+
+            listTag = mockMvc.perform(get("/api/announcements"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            first.commit();
+        }
+
+        mockMvc.perform(get("/api/announcements").header("If-None-Match", listTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.title == 'a2')]").exists());
+    }
+
+    @Test
+    void foldingTheCatalogChangeLogKeepsTheListEtag() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("title");
+        a.setDescription("desc");
+        announcementRepository.save(a);
+
+        String listTag = mockMvc.perform(get("/api/announcements"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        long version = catalogVersion();
+
+        announcementService.foldCatalogChanges();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from announcement_catalog_changes", Long.class)).isZero();
+        assertThat(catalogVersion()).isEqualTo(version);
+        mockMvc.perform(get("/api/announcements").header("If-None-Match", listTag))
+                .andExpect(status().isNotModified());
+    }
+
+    private static void renameAnnouncement(Connection connection, Long id, String title) throws SQLException {
+        try (PreparedStatement st = connection.prepareStatement("update announcements set title = ? where id = ?")) {
+            st.setString(1, title);
+            st.setLong(2, id);
+            assertThat(st.executeUpdate()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void listWithLimitPagesThroughAnnouncementsNewestFirst() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        for (int i = 1; i <= 3; i++) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle("title" + i);
+            a.setDescription("desc" + i);
+            announcementRepository.save(a);
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/announcements").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].title").value("title3"))
+                .andExpect(jsonPath("$.items[1].title").value("title2"))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn();
+        String next = objectMapper.readTree(first.getResponse().getContentAsString()).get("next").asText();
+
+        mockMvc.perform(get("/api/announcements").param("limit", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("title1"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/api/announcements").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchFiltersByCityCountryAndDates() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement hamburg = new Announcement();
+        hamburg.setOwner(owner);
+        hamburg.setTitle("hamburg");
+        hamburg.setDescription("d");
+        hamburg.setCity("Hamburg");
+        hamburg.setCountry("Germany");
+        hamburg.setStartDate(LocalDate.of(2025, 10, 12));
+        hamburg.setEndDate(LocalDate.of(2025, 10, 20));
+        announcementRepository.save(hamburg);
+
+        Announcement berlin = new Announcement();
+        berlin.setOwner(owner);
+        berlin.setTitle("berlin");
+        berlin.setDescription("d");
+        berlin.setCity("Berlin");
+        berlin.setCountry("Germany");
+        berlin.setStartDate(LocalDate.of(2025, 11, 1));
+        berlin.setEndDate(LocalDate.of(2025, 11, 5));
+        announcementRepository.save(berlin);
+
+        mockMvc.perform(get("/api/announcements/search").param("city", "hamburg"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("hamburg"));
+
+        mockMvc.perform(get("/api/announcements/search")
+                        .param("country", "Germany")
+                        .param("startDate", "2025-10-01")
+                        .param("endDate", "2025-10-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("hamburg"));
+
+        mockMvc.perform(get("/api/announcements/search").param("country", "germany").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("berlin"))
+                .andExpect(jsonPath("$.next").isNotEmpty());
+    }
+
+    @Test
+    void availableReturnsAnnouncementsOverlappingTheRange() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Object[][] windows = {
+                {"early", LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 5)},
+                {"touching", LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 8)},
+                {"covering", LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 1)},
+                {"later", LocalDate.of(2025, 3, 11), LocalDate.of(2025, 3, 20)},
+                {"undated", null, null}
+        };
+        for (Object[] w : windows) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle((String) w[0]);
+            a.setDescription("desc");
+            a.setStartDate((LocalDate) w[1]);
+            a.setEndDate((LocalDate) w[2]);
+            announcementRepository.save(a);
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/announcements/available")
+                        .param("from", "2025-03-05")
+                        .param("to", "2025-03-10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].title").value("covering"))
+                .andExpect(jsonPath("$.items[1].title").value("touching"))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn();
+        String next = objectMapper.readTree(first.getResponse().getContentAsString()).get("next").asText();
+
+        mockMvc.perform(get("/api/announcements/available")
+                        .param("from", "2025-03-05")
+                        .param("to", "2025-03-10")
+                        .param("limit", "2")
+                        .param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("early"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/api/announcements/available")
+                        .param("from", "2025-03-10")
+                        .param("to", "2025-03-05"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void nearbyReturnsAnnouncementsWithinRadiusNearestFirst() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        CityCoordinates hamburg = cityCoordinatesRepository.findByCityAndCountry("HAMBURG", "germany").orElseThrow();
+        Object[][] places = {
+                {"hamburg", hamburg.getLatitude(), hamburg.getLongitude()},
+                {"luebeck", 53.8655, 10.6866},
+                {"berlin", 52.5200, 13.4050},
+                {"nowhere", null, null}
+        };
+        for (Object[] p : places) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle((String) p[0]);
+            a.setDescription("desc");
+            a.setLatitude((Double) p[1]);
+            a.setLongitude((Double) p[2]);
+            announcementRepository.save(a);
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/announcements/nearby")
+                        .param("lat", "53.55")
+                        .param("lon", "9.99")
+                        .param("radiusKm", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].announcement.title").value("hamburg"))
+                .andExpect(jsonPath("$[1].announcement.title").value("luebeck"))
+                .andReturn();
+        JsonNode nearby = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(nearby.get(0).get("distanceKm").asDouble()).isLessThan(1.0);
+        assertThat(nearby.get(1).get("distanceKm").asDouble()).isBetween(45.0, 60.0);
+
+        mockMvc.perform(get("/api/announcements/nearby")
+                        .param("lat", "91")
+                        .param("lon", "9.99"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void facetsFollowInsertsStatusChangesAndDeletes() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        String[][] places = {
+                {"Hamburg", "Germany"}, {"Hamburg", "Germany"}, {"Berlin", "Germany"},
+                {"Vienna", "Austria"}, {null, null}
+        };
+        List<Announcement> saved = new ArrayList<>();
+        for (String[] p : places) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle("t");
+            a.setDescription("d");
+            a.setCity(p[0]);
+            a.setCountry(p[1]);
+            saved.add(announcementRepository.save(a));
+        }
+
+        Announcement closed = saved.get(2);
+        closed.setStatus(AnnouncementStatus.CLOSED.name());
+        announcementRepository.save(closed);
+        announcementRepository.delete(saved.get(3));
+
+        mockMvc.perform(get("/api/announcements/facets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cities.length()").value(1))
+                .andExpect(jsonPath("$.cities[0].value").value("Hamburg"))
+                .andExpect(jsonPath("$.cities[0].count").value(2))
+                .andExpect(jsonPath("$.countries.length()").value(1))
+                .andExpect(jsonPath("$.countries[0].value").value("Germany"))
+                .andExpect(jsonPath("$.countries[0].count").value(2))
+                .andExpect(jsonPath("$.statuses[0].value").value("CLOSED"))
+                .andExpect(jsonPath("$.statuses[0].count").value(1))
+                .andExpect(jsonPath("$.statuses[1].value").value("OPEN"))
+                .andExpect(jsonPath("$.statuses[1].count").value(3));
+    }
+
+    @Test
+    void textSearchRanksTitleMatchesFirst() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement inDescription = new Announcement();
+        inDescription.setOwner(owner);
+        inDescription.setTitle("Need a sitter");
+        inDescription.setDescription("My lop is vaccinated and calm");
+        announcementRepository.save(inDescription);
+
+        Announcement inTitle = new Announcement();
+        inTitle.setOwner(owner);
+        inTitle.setTitle("Vaccinated lop near Hamburg");
+        inTitle.setDescription("Loves hay");
+        announcementRepository.save(inTitle);
+
+        Announcement unrelated = new Announcement();
+        unrelated.setOwner(owner);
+        unrelated.setTitle("Dwarf bunny");
+        unrelated.setDescription("Needs carrots");
+        announcementRepository.save(unrelated);
+
+        mockMvc.perform(get("/api/announcements/search/text").param("q", "vaccinated lops"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Vaccinated lop near Hamburg"))
+                .andExpect(jsonPath("$[1].title").value("Need a sitter"));
+
+        mockMvc.perform(get("/api/announcements/search/text").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void closeExpiredEndpointClosesAnnouncements() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("t");
+        a.setDescription("d");
+        a.setEndDate(LocalDate.now().minusDays(1));
+        announcementRepository.save(a);
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"admin@example.com\",\"password\":\"pw\",\"displayName\":\"Admin\"}"))
+                .andExpect(status().isCreated());
+        User admin = userRepository.findByEmailIgnoreCase("admin@example.com").orElseThrow();
+        admin.setRoles(Set.of("ADMIN"));
+        userRepository.save(admin);
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"admin@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("body").get("body").get("accessToken").asText();
+
+        mockMvc.perform(post("/api/announcements/close-expired")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+
+        Announcement closed = announcementRepository.findById(a.getId()).orElseThrow();
+        assertThat(closed.getStatus()).isEqualTo(AnnouncementStatus.CLOSED.name());
+    }
+
+    @Test
+    void closeExpiredAnswersConflictWhileARunOnThisNodeHoldsTheLease() throws Exception {
+        announcementRepository.deleteAll();
+        String token = jwtUtil.generateAccessToken(1L, "admin@bunnyland.com", Set.of("ADMIN"));
+        cacheManager.getCache(CacheConfig.ANNOUNCEMENTS).put(-1L, "cached");
+
+        // the scheduled pass on this same node is mid-run
+        String running = JobLockRepository.runOwner();
+        assertThat(jobLockRepository.tryLock("announcement-expiry", running, 600)).isEqualTo(1);
+        try {
+            mockMvc.perform(post("/api/announcements/close-expired")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isConflict());
+        } finally {
+            jobLockRepository.unlock("announcement-expiry", running);
+        }
+
+        // nothing to close: the caches are left alone
+        mockMvc.perform(post("/api/announcements/close-expired")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0));
+        assertThat(cacheManager.getCache(CacheConfig.ANNOUNCEMENTS).get(-1L)).isNotNull();
+    }
+
+    @Test
+    void scheduledExpiryRunEvictsTheCachedAnnouncement() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("t");
+        a.setDescription("d");
+        a.setEndDate(LocalDate.now().minusDays(1));
+        a = announcementRepository.save(a);
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(AnnouncementStatus.OPEN.name()));
+
+        announcementExpiryJob.scheduledRun();
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(AnnouncementStatus.CLOSED.name()));
+    }
+
+    @Test
+    void getReturnsAnnouncementById() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("title1");
+        a.setDescription("desc1");
+        a = announcementRepository.save(a);
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(a.getId()))
+                .andExpect(jsonPath("$.title").value("title1"))
+                .andExpect(jsonPath("$.ownerId").value(owner.getId()));
+    }
+
+    @Test
+    void getReturnsNotFoundForMissingAnnouncement() throws Exception {
+        mockMvc.perform(get("/api/announcements/9999"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
-    void listReturnsAllAnnouncements() throws Exception {
+    void applyCreatesApplication() throws Exception {
+        announcementApplicationRepository.deleteAll();
         announcementRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -102,18 +860,23 @@ class AnnouncementControllerIntegrationTest {
 
         Announcement a = new Announcement();
         a.setOwner(owner);
-        a.setTitle("title1");
-        a.setDescription("desc1");
-        announcementRepository.save(a);
+        a.setTitle("t");
+        a.setDescription("d");
+        a = announcementRepository.save(a);
 
-        mockMvc.perform(get("/api/announcements"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title").value("title1"))
-                .andExpect(jsonPath("$[0].ownerId").value(owner.getId()));
+        mockMvc.perform(post("/api/announcements/" + a.getId() + "/apply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.announcementId").value(a.getId()))
+                .andExpect(jsonPath("$.message").value("hi"));
+
+        assertThat(announcementApplicationRepository.count()).isEqualTo(1);
     }
 
     @Test
-    void closeExpiredEndpointClosesAnnouncements() throws Exception {
+    void retriedApplyWithIdempotencyKeyCreatesOneApplication() throws Exception {
+        announcementApplicationRepository.deleteAll();
         announcementRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -127,35 +890,31 @@ class AnnouncementControllerIntegrationTest {
         a.setOwner(owner);
         a.setTitle("t");
         a.setDescription("d");
-        a.setEndDate(LocalDate.now().minusDays(1));
-        announcementRepository.save(a);
+        a = announcementRepository.save(a);
+        String key = UUID.randomUUID().toString();
 
-        mockMvc.perform(post("/api/auth/register")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content("{\"email\":\"admin@example.com\",\"password\":\"pw\",\"displayName\":\"Admin\"}"))
-                .andExpect(status().isCreated());
-        User admin = userRepository.findByEmailIgnoreCase("admin@example.com").orElseThrow();
-        admin.setRoles(Set.of("ADMIN"));
-        userRepository.save(admin);
-        MvcResult login = mockMvc.perform(post("/api/auth/login")
+        MvcResult first = mockMvc.perform(post("/api/announcements/" + a.getId() + "/apply")
+                        .header("Idempotency-Key", key)
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content("{\"email\":\"admin@example.com\",\"password\":\"pw\"}"))
-                .andExpect(status().isOk())
+                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                .andExpect(status().isCreated())
                 .andReturn();
-        String token = objectMapper.readTree(login.getResponse().getContentAsString())
-                .get("body").get("body").get("accessToken").asText();
 
-        mockMvc.perform(post("/api/announcements/close-expired")
-                        .header("Authorization", "Bearer " + token))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.count").value(1));
+        // Served from the table this time, as after a restart
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_KEYS).clear();
+        mockMvc.perform(post("/api/announcements/" + a.getId() + "/apply")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(first.getResponse().getContentAsString()));
 
-        Announcement closed = announcementRepository.findById(a.getId()).orElseThrow();
-        assertThat(closed.getStatus()).isEqualTo(AnnouncementStatus.CLOSED.name());
+        assertThat(announcementApplicationRepository.count()).isEqualTo(1);
     }
 
     @Test
-    void getReturnsAnnouncementById() throws Exception {
+    void applyWithRespondAsyncIsAcceptedAndWrittenBehind() throws Exception {
+        announcementApplicationRepository.deleteAll();
         announcementRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -167,25 +926,38 @@ class AnnouncementControllerIntegrationTest {
 
         Announcement a = new Announcement();
         a.setOwner(owner);
-        a.setTitle("title1");
-        a.setDescription("desc1");
+        a.setTitle("t");
+        a.setDescription("d");
         a = announcementRepository.save(a);
 
-        mockMvc.perform(get("/api/announcements/" + a.getId()))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(a.getId()))
-                .andExpect(jsonPath("$.title").value("title1"))
-                .andExpect(jsonPath("$.ownerId").value(owner.getId()));
-    }
-
-    @Test
-    void getReturnsNotFoundForMissingAnnouncement() throws Exception {
-        mockMvc.perform(get("/api/announcements/9999"))
+        MvcResult accepted = mockMvc.perform(post("/api/announcements/" + a.getId() + "/apply")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.announcementId").value(a.getId()))
+                .andReturn();
+        long id = objectMapper.readTree(accepted.getResponse().getContentAsString()).get("id").asLong();
+
+        // The writer drains the queue in the background
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!announcementApplicationRepository.existsById(id) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        AnnouncementApplication written = announcementApplicationRepository.findById(id).orElseThrow();
+        assertThat(written.getMessage()).isEqualTo("hi");
+        assertThat(written.getOwnerId()).isEqualTo(owner.getId());
+
+        mockMvc.perform(post("/api/announcements/" + (a.getId() + 1000) + "/apply")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
                 .andExpect(status().isNotFound());
     }
 
     @Test
-    void applyCreatesApplication() throws Exception {
+    void applicationCountFollowsConcurrentAppliesAndDeletes() throws Exception {
         announcementApplicationRepository.deleteAll();
         announcementRepository.deleteAll();
         userRepository.deleteAll();
@@ -200,16 +972,150 @@ class AnnouncementControllerIntegrationTest {
         a.setOwner(owner);
         a.setTitle("t");
         a.setDescription("d");
-        a = announcementRepository.save(a);
+        Long id = announcementRepository.save(a).getId();
+
+        int applies = 40;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < applies; i++) {
+                results.add(pool.submit(() -> mockMvc.perform(post("/api/announcements/" + id + "/apply")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(201);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        mockMvc.perform(get("/api/announcements/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applicationCount").value(applies));
 
-        mockMvc.perform(post("/api/announcements/" + a.getId() + "/apply")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
-                .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.announcementId").value(a.getId()))
-                .andExpect(jsonPath("$.message").value("hi"));
+        announcementApplicationRepository.deleteById(announcementApplicationRepository.findAll().get(0).getId());
+        assertThat(announcementRepository.findById(id).orElseThrow().getApplicationCount()).isEqualTo(applies - 1);
+    }
 
-        assertThat(announcementApplicationRepository.count()).isEqualTo(1);
+    @Test
+    void concurrentAppliesToSeveralAnnouncementsMoveTheListEtag() throws Exception {
+        announcementApplicationRepository.deleteAll();
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle("t" + i);
+            a.setDescription("d");
+            ids.add(announcementRepository.save(a).getId());
+        }
+        String listTag = mockMvc.perform(get("/api/announcements"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        long catalogVersion = catalogVersion();
+
+        int appliesEach = 10;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < appliesEach * ids.size(); i++) {
+                Long id = ids.get(i % ids.size());
+                results.add(pool.submit(() -> mockMvc.perform(post("/api/announcements/" + id + "/apply")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(201);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (Long id : ids) {
+            assertThat(announcementRepository.findById(id).orElseThrow().getApplicationCount()).isEqualTo(appliesEach);
+        }
+        // list bodies carry the counts, so their validator has to move too
+        assertThat(catalogVersion()).isGreaterThan(catalogVersion);
+        mockMvc.perform(get("/api/announcements").header("If-None-Match", listTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].applicationCount", everyItem(is(appliesEach))));
+    }
+
+    @Test
+    void batchInsertAndSingleApplyOnOverlappingAnnouncementsDoNotDeadlock() throws Exception {
+        announcementApplicationRepository.deleteAll();
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        List<Long> ids = new ArrayList<>();
+        for (String title : List.of("x", "y")) {
+            Announcement a = new Announcement();
+            a.setOwner(owner);
+            a.setTitle(title);
+            a.setDescription("d");
+            ids.add(announcementRepository.save(a).getId());
+        }
+        Long x = ids.get(0);
+        Long y = ids.get(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try (Connection flush = dataSource.getConnection(); Connection single = dataSource.getConnection()) {
+            flush.setAutoCommit(false);
+            single.setAutoCommit(false);
+            // fail fast instead of hanging if either side waits on a lock it should not need
+            for (Connection c : List.of(flush, single)) {
+                try (Statement st = c.createStatement()) {
+                    st.execute("set lock_timeout = '5s'");
+                }
+            }
+
+            // a write-behind flush has written X and is about to write Y ...
+            insertApplication(flush, x);
+            // ... while a single apply to Y gets in first
+            insertApplication(single, y);
+            Future<?> flushRest = pool.submit(() -> {
+                insertApplication(flush, y);
+                return null;
+            });
+            single.commit();
+            flushRest.get(10, TimeUnit.SECONDS);
+            flush.commit();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(announcementRepository.findById(x).orElseThrow().getApplicationCount()).isEqualTo(1);
+        assertThat(announcementRepository.findById(y).orElseThrow().getApplicationCount()).isEqualTo(2);
+    }
+
+    private static void insertApplication(Connection connection, Long announcementId) throws SQLException {
+        try (PreparedStatement st = connection.prepareStatement("""
+                insert into announcement_applications (announcement_id, message, contact, created_at)
+                values (?, 'hi', 'email', now())""")) {
+            st.setLong(1, announcementId);
+            st.executeUpdate();
+        }
+    }
+
+    private long catalogVersion() {
+        return jdbcTemplate.queryForObject("select version from announcement_catalog where id = 1", Long.class);
     }
 
     @Test
@@ -254,6 +1160,84 @@ class AnnouncementControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].message").value("hi"));
     }
 
+    @Test
+    void applicationsInboxPagesNewestFirstAndFiltersByAnnouncement() throws Exception {
+        announcementApplicationRepository.deleteAll();
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"owner@example.com\",\"password\":\"pw\",\"displayName\":\"Owner\"}"))
+                .andExpect(status().isCreated());
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"owner@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("body").get("body").get("accessToken").asText();
+
+        List<Long> ids = new ArrayList<>();
+        for (String title : List.of("first", "second")) {
+            MvcResult created = mockMvc.perform(post("/api/announcements")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateAnnouncementRequest(title, "d", null, null, null, null))))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids.add(objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong());
+        }
+        for (String message : List.of("m1", "m2", "m3")) {
+            mockMvc.perform(post("/api/announcements/" + ids.get(0) + "/apply")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"message\":\"" + message + "\",\"contact\":\"email\"}"))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(post("/api/announcements/" + ids.get(1) + "/apply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"other\",\"contact\":\"email\"}"))
+                .andExpect(status().isCreated());
+
+        MvcResult firstPage = mockMvc.perform(get("/api/announcements/applications")
+                        .header("Authorization", "Bearer " + token)
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].message").value("other"))
+                .andExpect(jsonPath("$.items[2].message").value("m2"))
+                .andReturn();
+        String next = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("next").asText();
+
+        mockMvc.perform(get("/api/announcements/applications")
+                        .header("Authorization", "Bearer " + token)
+                        .param("limit", "3")
+                        .param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].message").value("m1"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/api/announcements/applications")
+                        .header("Authorization", "Bearer " + token)
+                        .param("announcementId", ids.get(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].announcementId").value(ids.get(1)));
+
+        // Owner and status are copied onto applications; closing the announcement takes them out of the inbox
+        Announcement first = announcementRepository.findById(ids.get(0)).orElseThrow();
+        first.setStatus(AnnouncementStatus.CLOSED.name());
+        announcementRepository.save(first);
+
+        mockMvc.perform(get("/api/announcements/applications")
+                        .header("Authorization", "Bearer " + token)
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].message").value("other"));
+    }
+
     @Test
     void deleteAllowsOwnerToRemoveAnnouncement() throws Exception {
         announcementRepository.deleteAll();
@@ -443,6 +1427,70 @@ class AnnouncementControllerIntegrationTest {
         assertThat(moderated.getStatus()).isEqualTo(AnnouncementStatus.CLOSED.name());
     }
 
+    @Test
+    void getServesCachedAnnouncementUntilModerated() throws Exception {
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("cached");
+        a.setDescription("desc");
+        a = announcementRepository.save(a);
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("cached"));
+        mockMvc.perform(get("/api/announcements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("cached"));
+
+        // Changed behind the service's back: the by-id read keeps coming from the cache,
+        // while the list is keyed by the catalog version the trigger just moved on
+        a.setTitle("changed");
+        announcementRepository.save(a);
+        mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(jsonPath("$.title").value("cached"));
+        mockMvc.perform(get("/api/announcements"))
+                .andExpect(jsonPath("$[0].title").value("changed"));
+
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"admin@example.com\",\"password\":\"pw\",\"displayName\":\"Admin\"}"))
+                .andExpect(status().isCreated());
+        User admin = userRepository.findByEmailIgnoreCase("admin@example.com").orElseThrow();
+        admin.setRoles(Set.of("ADMIN"));
+        userRepository.save(admin);
+        MvcResult adminLogin = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"admin@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String adminToken = objectMapper.readTree(adminLogin.getResponse().getContentAsString())
+                .get("body").get("body").get("accessToken").asText();
+
+        mockMvc.perform(patch("/api/announcements/" + a.getId() + "/moderate")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CLOSED\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/announcements/" + a.getId()))
+                .andExpect(jsonPath("$.title").value("changed"))
+                .andExpect(jsonPath("$.status").value(AnnouncementStatus.CLOSED.name()));
+        mockMvc.perform(get("/api/announcements"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "announcements").tag("result", "hit")
+                .functionCounter().count()).isGreaterThanOrEqualTo(1);
+    }
+
     @Test
     void moderatePreventsNonAdmin() throws Exception {
         announcementRepository.deleteAll();
@@ -477,5 +1525,78 @@ class AnnouncementControllerIntegrationTest {
         Announcement still = announcementRepository.findById(a.getId()).orElseThrow();
         assertThat(still.getStatus()).isEqualTo(AnnouncementStatus.OPEN.name());
     }
-}
 
+    @Test
+    void archiveMovesRetiredAnnouncementsWithTheirApplications() throws Exception {
+        announcementApplicationRepository.deleteAll();
+        announcementRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = new User();
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("pw");
+        owner.setDisplayName("Owner");
+        owner = userRepository.save(owner);
+
+        Announcement retired = new Announcement();
+        retired.setOwner(owner);
+        retired.setTitle("Gone");
+        retired.setDescription("d");
+        retired = announcementRepository.save(retired);
+        Announcement open = new Announcement();
+        open.setOwner(owner);
+        open.setTitle("Live");
+        open.setDescription("d");
+        open = announcementRepository.save(open);
+
+        mockMvc.perform(post("/api/announcements/" + retired.getId() + "/apply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"hi\",\"contact\":\"email\"}"))
+                .andExpect(status().isCreated());
+        retired.setStatus(AnnouncementStatus.DELETED.name());
+        announcementRepository.save(retired);
+
+        // Cut-off in the future: the fresh DELETED row is already past retention
+        int moved = archivedAnnouncementRepository.archiveRetired(Instant.now().plusSeconds(60), 100);
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(announcementRepository.findById(retired.getId())).isEmpty();
+        assertThat(announcementRepository.findById(open.getId())).isPresent();
+        assertThat(announcementApplicationRepository.count()).isZero();
+        // The scheduled pass uses the real 30-day retention and leaves the fresh OPEN row alone
+        assertThat(announcementArchiveJob.runOnce()).hasValue(0);
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"admin@example.com\",\"password\":\"pw\",\"displayName\":\"Admin\"}"))
+                .andExpect(status().isCreated());
+        User admin = userRepository.findByEmailIgnoreCase("admin@example.com").orElseThrow();
+        admin.setRoles(Set.of("ADMIN"));
+        userRepository.save(admin);
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"admin@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("body").get("body").get("accessToken").asText();
+
+        mockMvc.perform(get("/api/announcements/archive")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(retired.getId()))
+                .andExpect(jsonPath("$.items[0].status").value(AnnouncementStatus.DELETED.name()));
+
+        mockMvc.perform(get("/api/announcements/archive/" + retired.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.announcement.title").value("Gone"))
+                .andExpect(jsonPath("$.archivedAt").exists())
+                .andExpect(jsonPath("$.applications[0].message").value("hi"));
+
+        mockMvc.perform(get("/api/announcements/archive/" + open.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+}
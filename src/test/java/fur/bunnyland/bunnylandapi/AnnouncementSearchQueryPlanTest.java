@@ -0,0 +1,210 @@
+package fur.bunnyland.bunnylandapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the index/query pairing of announcement search. The SQL below mirrors what
+ * {@code AnnouncementSpecifications} renders; if a filter changes shape, update both.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class AnnouncementSearchQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        clean();
+        jdbcTemplate.update("insert into users (email, password_hash, created_at) values ('plan@example.com', 'pw', now())");
+        jdbcTemplate.update("""
+                insert into announcements (owner_id, title, description, city, country, start_date, end_date,
+                                           latitude, longitude, status, created_at)
+                select u.id, 'title ' || g, 'desc', 'City ' || (g % 50), 'Country ' || (g % 10),
+                       date '2025-01-01' + (g % 300), date '2025-01-05' + (g % 300),
+                       45 + (g % 100) * 0.1, 5 + (g % 73) * 0.2,
+                       case when g % 5 = 0 then 'CLOSED' else 'OPEN' end,
+                       now() - g * interval '1 minute'
+                from users u, generate_series(1, 5000) g
+                where u.email = 'plan@example.com'""");
+        jdbcTemplate.execute("analyze announcements");
+    }
+
+    @AfterEach
+    void clean() {
+        // Bulk delete; repository deleteAll() would load all 5000 rows first
+        jdbcTemplate.update("delete from announcements");
+        jdbcTemplate.update("delete from users where email = 'plan@example.com'");
+    }
+
+    @Test
+    void cityFilterUsesCityIndex() {
+        String plan = explain("""
+                select * from announcements
+                where status = 'OPEN' and lower(city) = 'city 7'
+                order by created_at desc, id desc
+                limit 21""");
+
+        assertThat(plan).contains("idx_ann_status_city_created");
+    }
+
+    @Test
+    void countryFilterUsesCountryIndex() {
+        String plan = explain("""
+                select * from announcements
+                where status = 'OPEN' and lower(country) = 'country 3'
+                order by created_at desc, id desc
+                limit 21""");
+
+        assertThat(plan).contains("idx_ann_status_country_created");
+    }
+
+    @Test
+    void cityFilterWithCursorSeeksIntoCityIndex() {
+        String plan = explain("""
+                select * from announcements
+                where status = 'OPEN' and lower(city) = 'city 7'
+                  and created_at <= now() - interval '1 hour'
+                  and (created_at < now() - interval '1 hour' or id < 100)
+                order by created_at desc, id desc
+                limit 21""");
+
+        assertThat(plan).contains("idx_ann_status_city_created");
+        assertThat(plan).contains("Index Cond: (((status)::text = 'OPEN'::text) AND (lower((city)::text) = 'city 7'::text) AND (created_at <=");
+    }
+
+    @Test
+    void unfilteredListUsesKeysetIndex() {
+        String plan = explain("""
+                select * from announcements
+                where status = 'OPEN'
+                order by created_at desc, id desc
+                limit 21""");
+
+        assertThat(plan).contains("idx_ann_status_created");
+    }
+
+    @Test
+    void textSearchUsesGinIndex() {
+        String plan = explain("""
+                select a.* from announcements a, websearch_to_tsquery('english', '42') q
+                where a.status = 'OPEN' and a.search_vector @@ q
+                order by ts_rank(a.search_vector, q) desc, a.id desc
+                limit 20 offset 0""");
+
+        assertThat(plan).contains("idx_ann_search_vector");
+    }
+
+    @Test
+    void selectiveAvailabilityOverlapUsesGistIndex() {
+        // For windows matching a large share of rows, walking idx_ann_status_created newest first is cheaper
+        String plan = explain("""
+                select * from announcements a
+                where a.status = 'OPEN' and a.availability && daterange(date '2025-11-01', date '2025-11-07', '[]')
+                order by a.created_at desc, a.id desc
+                limit 21""");
+
+        assertThat(plan).contains("idx_ann_open_availability");
+    }
+
+    @Test
+    void nearbyBoundingBoxUsesLocationIndex() {
+        String plan = explain("""
+                select * from announcements a
+                where a.status = 'OPEN'
+                  and a.latitude between 53.2 and 53.9
+                  and a.longitude between 9.4 and 10.6
+                limit 20""");
+
+        assertThat(plan).contains("idx_ann_open_location");
+    }
+
+    @Test
+    void expiryChunkUsesOpenEndDateIndex() {
+        String plan = explain("""
+                update announcements set status = 'CLOSED'
+                where id in (
+                    select id from announcements
+                    where status = 'OPEN' and end_date < date '2025-01-20'
+                    limit 1000)""");
+
+        assertThat(plan).contains("idx_ann_open_end_date");
+    }
+
+    @Test
+    void archiveCandidatesUseRetiredIndex() {
+        String plan = explain("""
+                select id from announcements
+                where status <> 'OPEN' and updated_at < now() - interval '30 days'
+                order by updated_at
+                limit 500""");
+
+        assertThat(plan).contains("idx_ann_retired_updated");
+    }
+
+    @Test
+    void inboxForOneAnnouncementSeeksIntoApplicationIndex() {
+        Long id = seedApplications();
+        Long owner = jdbcTemplate.queryForObject("select owner_id from announcements where id = ?", Long.class, id);
+
+        String plan = explain("""
+                select app.id, app.announcement_id, app.message, app.contact, app.created_at
+                from announcement_applications app
+                where app.announcement_id = %d and app.owner_id = %d and app.announcement_status = 'OPEN'
+                  and (app.created_at, app.id) < (now(), 9223372036854775807)
+                order by app.created_at desc, app.id desc
+                limit 21""".formatted(id, owner));
+
+        assertThat(plan).contains("idx_app_announcement_created");
+        assertThat(plan).doesNotContain("announcements a");
+    }
+
+    @Test
+    void ownerInboxIsOneRangeScanWithoutSort() {
+        Long id = seedApplications();
+        Long owner = jdbcTemplate.queryForObject("select owner_id from announcements where id = ?", Long.class, id);
+
+        String plan = explain("""
+                select app.id, app.announcement_id, app.message, app.contact, app.created_at
+                from announcement_applications app
+                where app.owner_id = %d and app.announcement_status = 'OPEN'
+                order by app.created_at desc, app.id desc
+                limit 21""".formatted(owner));
+
+        assertThat(plan).contains("Index Scan using idx_app_owner_inbox");
+        assertThat(plan).doesNotContain("Sort");
+    }
+
+    // Four applications per announcement; returns an OPEN announcement id
+    private Long seedApplications() {
+        jdbcTemplate.update("""
+                insert into announcement_applications (announcement_id, message, contact, created_at)
+                select a.id, 'hi', 'mail', now() - g * interval '1 minute'
+                from announcements a, generate_series(1, 4) g""");
+        jdbcTemplate.execute("analyze announcement_applications");
+        return jdbcTemplate.queryForObject("select min(id) from announcements where status = 'OPEN'", Long.class);
+    }
+
+    private String explain(String sql) {
+        return transactionTemplate.execute(tx -> {
+            // The seeded table is small enough that a sequential scan could win on cost alone
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            List<String> lines = jdbcTemplate.queryForList("explain " + sql, String.class);
+            return String.join("\n", lines);
+        });
+    }
+}
@@ -86,6 +86,39 @@ class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.body.body.refreshToken").isNotEmpty());
     }
 
+    @Test
+    void replayedRefreshTokenRevokesTheSession() throws Exception {
+        String first = registerAndLogin();
+        String second = refresh(first);
+        assertNotEquals(first, second);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + first + "\"}"))
+                .andExpect(status().isUnauthorized());
+
+        // the replay took the newer token down with it
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + second + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevokesRefreshToken() throws Exception {
+        String refreshToken = registerAndLogin();
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void meReturnsProfile() throws Exception {
         userRepository.deleteAll();
@@ -108,5 +141,37 @@ class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"))
                 .andExpect(jsonPath("$.displayName").value("Test"));
     }
-}
 
+    @Test
+    void meRejectsInvalidToken() throws Exception {
+        mockMvc.perform(get("/api/auth/me")
+                        .header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String registerAndLogin() throws Exception {
+        userRepository.deleteAll();
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"test@example.com\",\"password\":\"secret\",\"displayName\":\"Test\"}"))
+                .andExpect(status().isCreated());
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"test@example.com\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(loginResult.getResponse().getContentAsString())
+                .get("body").get("body").get("refreshToken").asText();
+    }
+
+    private String refresh(String refreshToken) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("body").get("body").get("refreshToken").asText();
+    }
+}
@@ -0,0 +1,157 @@
+package fur.bunnyland.bunnylandapi;
+
+import fur.bunnyland.bunnylandapi.domain.Announcement;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementApplication;
+import fur.bunnyland.bunnylandapi.domain.User;
+import fur.bunnyland.bunnylandapi.repository.AnnouncementApplicationRepository;
+import fur.bunnyland.bunnylandapi.repository.AnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk-write throughput with pooled sequence ids and JDBC batching, against the same writes
+ * forced to one statement per row. Timings are logged for comparison; the assertions only pin
+ * the statement counts, which is what the batching buys and does not depend on the machine.
+ * Left out of the default test run; run it with <pre>mvn test -Pbenchmark</pre>
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class BulkInsertBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkInsertBenchmarkTest.class);
+    private static final int ROWS = 2000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    @Autowired
+    private AnnouncementApplicationRepository announcementApplicationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        clean();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        User u = new User();
+        u.setEmail("bulk@example.com");
+        u.setPasswordHash("pw");
+        owner = userRepository.save(u);
+    }
+
+    @AfterEach
+    void clean() {
+        if (statistics != null) {
+            statistics.setStatisticsEnabled(false);
+        }
+        jdbcTemplate.update("delete from announcements");
+        jdbcTemplate.update("delete from users where email = 'bulk@example.com'");
+    }
+
+    @Test
+    void announcementSaveAllIsBatched() {
+        Run rowByRow = run(false, this::announcement, announcementRepository::saveAll);
+        Run batched = run(true, this::announcement, announcementRepository::saveAll);
+
+        log.info("saveAll({} announcements): row by row {}, batched {}", ROWS, rowByRow, batched);
+        assertThat(rowByRow.statements()).isGreaterThanOrEqualTo(ROWS);
+        // one sequence call and one batch per 50 rows
+        assertThat(batched.statements()).isLessThanOrEqualTo(2 * (ROWS / 50) + 2);
+    }
+
+    @Test
+    void applicationIngestionIsBatched() {
+        Announcement target = announcementRepository.save(announcement(0));
+
+        IntFunction<AnnouncementApplication> application = i -> {
+            AnnouncementApplication app = new AnnouncementApplication();
+            app.setAnnouncement(target);
+            app.setMessage("message " + i);
+            app.setContact("contact" + i + "@example.com");
+            return app;
+        };
+        Run rowByRow = run(false, application, announcementApplicationRepository::saveAll);
+        Run batched = run(true, application, announcementApplicationRepository::saveAll);
+
+        log.info("saveAll({} applications): row by row {}, batched {}", ROWS, rowByRow, batched);
+        assertThat(rowByRow.statements()).isGreaterThanOrEqualTo(ROWS);
+        assertThat(batched.statements()).isLessThanOrEqualTo(2 * (ROWS / 50) + 2);
+        assertThat(announcementApplicationRepository.count()).isEqualTo(2L * ROWS);
+    }
+
+    private Announcement announcement(int i) {
+        Announcement a = new Announcement();
+        a.setOwner(owner);
+        a.setTitle("bulk " + i);
+        a.setDescription("bulk insert benchmark");
+        a.setCity("Berlin");
+        a.setCountry("Germany");
+        return a;
+    }
+
+    private <T> Run run(boolean batched, IntFunction<T> row, Consumer<List<T>> saveAll) {
+        List<T> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(row.apply(i));
+        }
+        statistics.clear();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (!batched) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            }
+            saveAll.accept(rows);
+        });
+        long nanos = System.nanoTime() - start;
+        return new Run(statistics.getPrepareStatementCount(), nanos);
+    }
+
+    private record Run(long statements, long nanos) {
+        @Override
+        public String toString() {
+            return "%d statements, %.0f rows/s".formatted(statements, ROWS * 1e9 / nanos);
+        }
+    }
+}
@@ -8,13 +8,14 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import fur.bunnyland.bunnylandapi.config.SecurityConfig;
 import fur.bunnyland.bunnylandapi.api.controller.HealthController;
+import fur.bunnyland.bunnylandapi.security.JwtUtil;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = HealthController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, JwtUtil.class})
 class HealthControllerTest {
 
         @Autowired
@@ -0,0 +1,59 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token verification cost: a parser built per call (the old {@code parseAccessToken}),
+ * a reused parser, and the claims cache. Not a unit test; run {@link #main} from the IDE or with
+ * <pre>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=fur.bunnyland.bunnylandapi.security.JwtUtilBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private Key accessKey;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(TestJwtProperties.hmac());
+        accessKey = Keys.hmacShaKeyFor(TestJwtProperties.ACCESS_SECRET.getBytes(StandardCharsets.UTF_8));
+        token = jwtUtil.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+        jwtUtil.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parserBuilder().setSigningKey(accessKey).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims reusedParser() {
+        return jwtUtil.verifyAccessToken(token);
+    }
+
+    @Benchmark
+    public Claims cached() {
+        return jwtUtil.parseAccessToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
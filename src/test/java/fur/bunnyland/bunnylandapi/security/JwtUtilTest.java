@@ -0,0 +1,159 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = spy(new JwtUtil(TestJwtProperties.hmac()));
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        String token = jwtUtil.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+
+        Claims first = jwtUtil.parseAccessToken(token);
+        Claims second = jwtUtil.parseAccessToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.get("id", Long.class)).isEqualTo(7L);
+        verify(jwtUtil, times(1)).verifyAccessToken(token);
+        assertThat(jwtUtil.cachedAccessTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        String token = jwtUtil.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> jwtUtil.parseAccessToken(tampered)).isInstanceOf(JwtException.class);
+            assertThatThrownBy(() -> jwtUtil.parseAccessToken("garbage")).isInstanceOf(JwtException.class);
+        }
+
+        assertThat(jwtUtil.cachedAccessTokens()).isZero();
+    }
+
+    @Test
+    void overlongTokenIsRefusedBeforeParsing() {
+        String token = "a".repeat(JwtUtil.MAX_TOKEN_LENGTH + 1);
+
+        assertThatThrownBy(() -> jwtUtil.parseAccessToken(token)).isInstanceOf(MalformedJwtException.class);
+
+        verify(jwtUtil, never()).verifyAccessToken(anyString());
+    }
+
+    @Test
+    void refreshTokenIsNotAcceptedAsAccessToken() {
+        UUID jti = UUID.randomUUID();
+        UUID family = UUID.randomUUID();
+        String refresh = jwtUtil.generateRefreshToken(7L, "owner@example.com", jti, family);
+
+        assertThatThrownBy(() -> jwtUtil.parseAccessToken(refresh)).isInstanceOf(JwtException.class);
+        Claims claims = jwtUtil.parseRefreshToken(refresh);
+        assertThat(claims.get("id", Long.class)).isEqualTo(7L);
+        assertThat(claims.getId()).isEqualTo(jti.toString());
+        assertThat(claims.get(JwtUtil.FAMILY_CLAIM, String.class)).isEqualTo(family.toString());
+    }
+
+    @Test
+    void tokensFromOneNodeVerifyOnAnother() {
+        JwtUtil otherNode = new JwtUtil(TestJwtProperties.hmac());
+        String token = jwtUtil.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+
+        assertThat(otherNode.parseAccessToken(token).getSubject()).isEqualTo("owner@example.com");
+    }
+
+    @Test
+    void retiredKeyStillVerifiesAfterRotation() {
+        String oldToken = jwtUtil.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+        JwtProperties rotated = new JwtProperties(
+                TestJwtProperties.hmacKeys("a2",
+                        new JwtProperties.SigningKey("a1", TestJwtProperties.ACCESS_SECRET, null, null),
+                        new JwtProperties.SigningKey("a2", "next-access-secret-0123456789abcdef", null, null)),
+                TestJwtProperties.hmac().refresh(), false);
+        JwtUtil rotatedNode = new JwtUtil(rotated);
+
+        String newToken = rotatedNode.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+
+        assertThat(rotatedNode.parseAccessToken(oldToken).get("id", Long.class)).isEqualTo(7L);
+        assertThat(rotatedNode.parseAccessToken(newToken).get("id", Long.class)).isEqualTo(7L);
+        // Nodes not yet given a2 refuse its tokens rather than guessing a key
+        assertThatThrownBy(() -> jwtUtil.parseAccessToken(newToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void es256PublicKeyOnlyNodeVerifiesButCannotSign() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        String privatePem = pem("PRIVATE KEY", pair.getPrivate().getEncoded());
+        String publicPem = pem("PUBLIC KEY", pair.getPublic().getEncoded());
+        JwtUtil issuer = new JwtUtil(new JwtProperties(
+                es256(new JwtProperties.SigningKey("e1", null, privatePem, publicPem)), TestJwtProperties.hmac().refresh(), false));
+        JwtUtil verifier = new JwtUtil(new JwtProperties(
+                es256(new JwtProperties.SigningKey("e1", null, null, publicPem)), TestJwtProperties.hmac().refresh(), false));
+
+        String token = issuer.generateAccessToken(7L, "owner@example.com", Set.of("OWNER"));
+
+        assertThat(verifier.parseAccessToken(token).get("id", Long.class)).isEqualTo(7L);
+        assertThatThrownBy(() -> verifier.generateAccessToken(7L, "owner@example.com", Set.of("OWNER")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shortHmacSecretIsRefusedAtStartup() {
+        JwtProperties weak = new JwtProperties(
+                TestJwtProperties.hmacKeys("a1", new JwtProperties.SigningKey("a1", "change-me", null, null)),
+                TestJwtProperties.hmac().refresh(), false);
+
+        assertThatThrownBy(() -> new JwtUtil(weak))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least 32 bytes");
+    }
+
+    @Test
+    void publishedDevSecretIsRefusedOutsideDevelopment() {
+        JwtProperties.TokenKeys devKeys = TestJwtProperties.hmacKeys("a1",
+                new JwtProperties.SigningKey("a1", "dev-only-access-secret-change-me-please", null, null));
+
+        assertThatThrownBy(() -> new JwtUtil(new JwtProperties(devKeys, TestJwtProperties.hmac().refresh(), false)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("development secret");
+        assertThat(new JwtUtil(new JwtProperties(devKeys, TestJwtProperties.hmac().refresh(), true))).isNotNull();
+    }
+
+    @Test
+    void blankSecretIsRefusedAtStartup() {
+        JwtProperties blank = new JwtProperties(
+                TestJwtProperties.hmacKeys("a1", new JwtProperties.SigningKey("a1", "", null, null)),
+                TestJwtProperties.hmac().refresh(), false);
+
+        assertThatThrownBy(() -> new JwtUtil(blank))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("has no secret");
+    }
+
+    private static JwtProperties.TokenKeys es256(JwtProperties.SigningKey key) {
+        return new JwtProperties.TokenKeys(JwtProperties.Algorithm.ES256, key.kid(), List.of(key), 900);
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,22 @@
+package fur.bunnyland.bunnylandapi.security;
+
+import java.util.List;
+
+final class TestJwtProperties {
+
+    static final String ACCESS_SECRET = "test-access-secret-0123456789abcdef";
+    static final String REFRESH_SECRET = "test-refresh-secret-0123456789abcdef";
+
+    private TestJwtProperties() {
+    }
+
+    static JwtProperties hmac() {
+        return new JwtProperties(
+                hmacKeys("a1", new JwtProperties.SigningKey("a1", ACCESS_SECRET, null, null)),
+                hmacKeys("r1", new JwtProperties.SigningKey("r1", REFRESH_SECRET, null, null)), false);
+    }
+
+    static JwtProperties.TokenKeys hmacKeys(String activeKey, JwtProperties.SigningKey... keys) {
+        return new JwtProperties.TokenKeys(JwtProperties.Algorithm.HS256, activeKey, List.of(keys), 900);
+    }
+}
@@ -0,0 +1,132 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.repository.ArchivedAnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.JobLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+import static fur.bunnyland.bunnylandapi.service.AnnouncementArchiveJob.BATCH_SIZE;
+import static fur.bunnyland.bunnylandapi.service.AnnouncementArchiveJob.LOCK_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnnouncementArchiveJobTest {
+
+    @Mock
+    private ArchivedAnnouncementRepository archivedAnnouncementRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheManager cacheManager;
+    private AnnouncementArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(ANNOUNCEMENTS, ANNOUNCEMENT_JSON);
+        job = new AnnouncementArchiveJob(archivedAnnouncementRepository, jobLockRepository, cacheManager, meterRegistry,
+                Duration.ofDays(30), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void runOnceSkipsWhenAnotherNodeHoldsTheLock() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(0);
+
+        assertThat(job.runOnce()).isEmpty();
+        verifyNoInteractions(archivedAnnouncementRepository);
+    }
+
+    @Test
+    void runOnceArchivesRowsPastRetentionInBatches() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(archivedAnnouncementRepository.archiveRetired(any(Instant.class), eq(BATCH_SIZE)))
+                .thenReturn(BATCH_SIZE, 12);
+
+        OptionalInt result = job.runOnce();
+
+        assertThat(result).hasValue(BATCH_SIZE + 12);
+        ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+        verify(archivedAnnouncementRepository, times(2)).archiveRetired(before.capture(), anyInt());
+        assertThat(before.getValue()).isCloseTo(Instant.now().minus(Duration.ofDays(30)), within(Duration.ofMinutes(1)));
+        verify(jobLockRepository).unlock(eq(LOCK_NAME), anyString());
+        assertThat(meterRegistry.get("announcements.archive.moved").counter().count()).isEqualTo(BATCH_SIZE + 12.0);
+    }
+
+    @Test
+    void runsOnTheSameNodeNeverShareTheLease() {
+        // job_locks in memory: free, or held by exactly one owner
+        AtomicReference<String> holder = new AtomicReference<>();
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenAnswer(inv -> {
+            String owner = inv.getArgument(1);
+            return holder.compareAndSet(null, owner) || owner.equals(holder.get()) ? 1 : 0;
+        });
+        when(jobLockRepository.unlock(eq(LOCK_NAME), anyString()))
+                .thenAnswer(inv -> holder.compareAndSet(inv.getArgument(1), null) ? 1 : 0);
+        List<OptionalInt> nested = new ArrayList<>();
+        when(archivedAnnouncementRepository.archiveRetired(any(Instant.class), eq(BATCH_SIZE))).thenAnswer(inv -> {
+            // a second pass starting on this node while the first is mid-batch
+            nested.add(job.runOnce());
+            return BATCH_SIZE;
+        }).thenReturn(2);
+
+        OptionalInt first = job.runOnce();
+
+        assertThat(first).hasValue(BATCH_SIZE + 2);
+        assertThat(nested).containsExactly(OptionalInt.empty());
+        // renewed and released by the run that took it, and nobody else
+        ArgumentCaptor<String> owners = ArgumentCaptor.forClass(String.class);
+        verify(jobLockRepository, times(3)).tryLock(eq(LOCK_NAME), owners.capture(), anyLong());
+        assertThat(owners.getAllValues().get(2)).isEqualTo(owners.getAllValues().get(0));
+        assertThat(owners.getAllValues().get(1)).isNotEqualTo(owners.getAllValues().get(0));
+        assertThat(holder.get()).isNull();
+    }
+
+    @Test
+    void scheduledRunEvictsArchivedAnnouncementsFromTheCaches() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(archivedAnnouncementRepository.archiveRetired(any(Instant.class), anyInt())).thenReturn(3);
+        cacheManager.getCache(ANNOUNCEMENTS).put(1L, "closed");
+        cacheManager.getCache(ANNOUNCEMENT_JSON).put(1L, "closed");
+
+        // called on the bare object, as the scheduler does through the non-proxied this
+        job.scheduledRun();
+
+        assertThat(cacheManager.getCache(ANNOUNCEMENTS).get(1L)).isNull();
+        assertThat(cacheManager.getCache(ANNOUNCEMENT_JSON).get(1L)).isNull();
+    }
+
+    @Test
+    void runOnceLeavesTheCachesAloneWhenNothingWasArchived() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(archivedAnnouncementRepository.archiveRetired(any(Instant.class), anyInt())).thenReturn(0);
+        cacheManager.getCache(ANNOUNCEMENTS).put(1L, "open");
+
+        assertThat(job.runOnce()).hasValue(0);
+
+        assertThat(cacheManager.getCache(ANNOUNCEMENTS).get(1L)).isNotNull();
+    }
+}
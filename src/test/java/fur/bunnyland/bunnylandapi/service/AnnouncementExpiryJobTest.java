@@ -0,0 +1,177 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.repository.AnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.JobLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_LISTS;
+import static fur.bunnyland.bunnylandapi.service.AnnouncementExpiryJob.BATCH_SIZE;
+import static fur.bunnyland.bunnylandapi.service.AnnouncementExpiryJob.LOCK_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnnouncementExpiryJobTest {
+
+    @Mock
+    private AnnouncementRepository announcementRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheManager cacheManager;
+    private AnnouncementExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(ANNOUNCEMENTS, ANNOUNCEMENT_JSON, ANNOUNCEMENT_LISTS);
+        job = new AnnouncementExpiryJob(announcementRepository, jobLockRepository, cacheManager, meterRegistry,
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    void runOnceSkipsWhenAnotherNodeHoldsTheLock() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), eq(600L))).thenReturn(0);
+
+        OptionalInt result = job.runOnce();
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(announcementRepository);
+        verify(jobLockRepository, never()).unlock(anyString(), anyString());
+        assertThat(meterRegistry.get("announcements.expiry.skipped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void runOnceClosesInBatchesRenewingTheLeaseAndUnlocks() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), eq(600L))).thenReturn(1);
+        when(announcementRepository.closeExpiredChunk(LocalDate.now(), BATCH_SIZE))
+                .thenReturn(BATCH_SIZE, BATCH_SIZE, 7);
+
+        OptionalInt result = job.runOnce();
+
+        assertThat(result).hasValue(2 * BATCH_SIZE + 7);
+        verify(announcementRepository, times(3)).closeExpiredChunk(LocalDate.now(), BATCH_SIZE);
+        // initial acquire plus one renewal after each full batch
+        verify(jobLockRepository, times(3)).tryLock(eq(LOCK_NAME), anyString(), eq(600L));
+        verify(jobLockRepository).unlock(eq(LOCK_NAME), anyString());
+        assertThat(meterRegistry.get("announcements.expiry.closed").counter().count()).isEqualTo(2007.0);
+        assertThat(meterRegistry.get("announcements.expiry.batches").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("announcements.expiry.run").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void runOnceStopsWhenTheLeaseIsLost() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1, 0);
+        when(announcementRepository.closeExpiredChunk(any(LocalDate.class), anyInt())).thenReturn(BATCH_SIZE);
+
+        OptionalInt result = job.runOnce();
+
+        assertThat(result).hasValue(BATCH_SIZE);
+        verify(announcementRepository, times(1)).closeExpiredChunk(any(LocalDate.class), anyInt());
+        verify(jobLockRepository).unlock(eq(LOCK_NAME), anyString());
+    }
+
+    @Test
+    void runOnceReleasesTheLockWhenABatchFails() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(announcementRepository.closeExpiredChunk(any(LocalDate.class), anyInt()))
+                .thenThrow(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> job.runOnce()).isInstanceOf(IllegalStateException.class);
+
+        verify(jobLockRepository).unlock(eq(LOCK_NAME), anyString());
+    }
+
+    @Test
+    void secondRunOnTheSameNodeIsRefusedWhileTheFirstHoldsTheLock() {
+        // job_locks in memory: free, or held by exactly one owner
+        AtomicReference<String> holder = new AtomicReference<>();
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenAnswer(inv -> {
+            String owner = inv.getArgument(1);
+            return holder.compareAndSet(null, owner) || owner.equals(holder.get()) ? 1 : 0;
+        });
+        when(jobLockRepository.unlock(eq(LOCK_NAME), anyString()))
+                .thenAnswer(inv -> holder.compareAndSet(inv.getArgument(1), null) ? 1 : 0);
+        List<OptionalInt> nested = new ArrayList<>();
+        when(announcementRepository.closeExpiredChunk(any(LocalDate.class), anyInt())).thenAnswer(inv -> {
+            // an admin call reaching this node while the scheduled pass is mid-batch
+            nested.add(job.runOnce());
+            return 3;
+        });
+
+        OptionalInt first = job.runOnce();
+
+        assertThat(first).hasValue(3);
+        assertThat(nested).containsExactly(OptionalInt.empty());
+        assertThat(holder.get()).isNull();
+        assertThat(meterRegistry.get("announcements.expiry.skipped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void scheduledRunClearsTheAnnouncementCachesWhenItClosesSomething() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(announcementRepository.closeExpiredChunk(any(LocalDate.class), anyInt())).thenReturn(2);
+        fillCaches();
+
+        // called on the bare object, as the scheduler does through the non-proxied this
+        job.scheduledRun();
+
+        assertThat(cacheManager.getCache(ANNOUNCEMENTS).get(1L)).isNull();
+        assertThat(cacheManager.getCache(ANNOUNCEMENT_JSON).get(1L)).isNull();
+        assertThat(cacheManager.getCache(ANNOUNCEMENT_LISTS).get("0:20")).isNull();
+    }
+
+    @Test
+    void runOnceLeavesTheCachesAloneWhenNothingExpired() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(announcementRepository.closeExpiredChunk(any(LocalDate.class), anyInt())).thenReturn(0);
+        fillCaches();
+
+        assertThat(job.runOnce()).hasValue(0);
+
+        assertThat(cacheManager.getCache(ANNOUNCEMENTS).get(1L)).isNotNull();
+        assertThat(cacheManager.getCache(ANNOUNCEMENT_LISTS).get("0:20")).isNotNull();
+    }
+
+    @Test
+    void runOnceClearsTheCachesForBatchesCommittedBeforeAFailure() {
+        when(jobLockRepository.tryLock(eq(LOCK_NAME), anyString(), anyLong())).thenReturn(1);
+        when(announcementRepository.closeExpiredChunk(any(LocalDate.class), anyInt()))
+                .thenReturn(BATCH_SIZE)
+                .thenThrow(new IllegalStateException("boom"));
+        fillCaches();
+
+        assertThatThrownBy(() -> job.runOnce()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cacheManager.getCache(ANNOUNCEMENTS).get(1L)).isNull();
+    }
+
+    private void fillCaches() {
+        cacheManager.getCache(ANNOUNCEMENTS).put(1L, "open");
+        cacheManager.getCache(ANNOUNCEMENT_JSON).put(1L, "open");
+        cacheManager.getCache(ANNOUNCEMENT_LISTS).put("0:20", "open");
+    }
+}
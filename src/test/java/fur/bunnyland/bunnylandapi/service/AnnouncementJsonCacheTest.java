@@ -0,0 +1,64 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENT_JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnnouncementJsonCacheTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private final AnnouncementJsonCache jsonCache =
+            new AnnouncementJsonCache(objectMapper, new ConcurrentMapCacheManager(ANNOUNCEMENT_JSON));
+
+    @Test
+    void jsonIsSerializedOncePerVersion() throws Exception {
+        byte[] first = jsonCache.json(announcement(1L, "t", 10L));
+        byte[] again = jsonCache.json(announcement(1L, "t", 10L));
+        byte[] changed = jsonCache.json(announcement(1L, "new title", 11L));
+
+        assertThat(again).isSameAs(first);
+        assertThat(changed).isNotSameAs(first);
+        assertThat(objectMapper.readTree(changed).get("title").asText()).isEqualTo("new title");
+    }
+
+    @Test
+    void writeArrayConcatenatesFragmentsIntoJsonArray() throws Exception {
+        List<byte[]> fragments = jsonCache.fragments(List.of(announcement(1L, "a", 10L), announcement(2L, "b", 12L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        AnnouncementJsonCache.writeArray(fragments, out);
+
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertThat(array.isArray()).isTrue();
+        assertThat(array).extracting(node -> node.get("title").asText()).containsExactly("a", "b");
+        assertThat(out.size()).isEqualTo(AnnouncementJsonCache.arrayLength(fragments));
+    }
+
+    @Test
+    void writeArrayOfNothingIsEmptyArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        AnnouncementJsonCache.writeArray(List.of(), out);
+
+        assertThat(out.toString()).isEqualTo("[]");
+        assertThat(AnnouncementJsonCache.arrayLength(List.of())).isEqualTo(2);
+    }
+
+    private static AnnouncementResponse announcement(Long id, String title, Long version) {
+        Instant now = Instant.now();
+        return new AnnouncementResponse(
+                id, 3L, title, "d", null, null, null, null, AnnouncementStatus.OPEN.name(), now, version, now, 0);
+    }
+}
@@ -1,33 +1,51 @@
 package fur.bunnyland.bunnylandapi.service;
 
+import fur.bunnyland.bunnylandapi.api.dto.PageResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAnnouncementRequest;
 import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAnnouncementResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ArchivedAnnouncementResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementApplicationResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementFacetsResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.FacetCount;
 import fur.bunnyland.bunnylandapi.api.dto.announce.CreateAnnouncementRequest;
 import fur.bunnyland.bunnylandapi.api.dto.announce.CreateAnnouncementResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.DeleteAnnouncementResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.CloseExpiredAnnouncementsResponse;
 import fur.bunnyland.bunnylandapi.api.dto.announce.ModerateAnnouncementResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.NearbyAnnouncementResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.SearchAnnouncementsRequest;
 import fur.bunnyland.bunnylandapi.domain.*;
 import fur.bunnyland.bunnylandapi.repository.AnnouncementRepository;
 import fur.bunnyland.bunnylandapi.repository.AnnouncementApplicationRepository;
+import fur.bunnyland.bunnylandapi.repository.AnnouncementCountRepository;
+import fur.bunnyland.bunnylandapi.repository.ArchivedAnnouncementRepository;
+import fur.bunnyland.bunnylandapi.repository.CityCoordinatesRepository;
 import fur.bunnyland.bunnylandapi.repository.UserRepository;
-import fur.bunnyland.bunnylandapi.security.JwtUtil;
-import io.jsonwebtoken.Claims;
+import fur.bunnyland.bunnylandapi.security.AuthenticatedUser;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,26 +57,32 @@ class AnnouncementServiceTest {
     @Mock
     private AnnouncementApplicationRepository announcementApplicationRepository;
 
+    @Mock
+    private ArchivedAnnouncementRepository archivedAnnouncementRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private JwtUtil jwtUtil;
+    private CityCoordinatesRepository cityCoordinatesRepository;
+
+    @Mock
+    private AnnouncementCountRepository announcementCountRepository;
+
+    @Mock
+    private AnnouncementExpiryJob announcementExpiryJob;
 
     @InjectMocks
     private AnnouncementService announcementService;
 
     @Test
     void createFailsWhenUserNotFound() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(99L);
+        AuthenticatedUser user = new AuthenticatedUser(99L, "user@example.com", Set.of("OWNER"));
         when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         CreateAnnouncementRequest req = new CreateAnnouncementRequest("title", "desc", null, null, null, null);
 
-        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(token, req);
+        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(user, req);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.UNAUTHORIZED);
@@ -68,10 +92,7 @@ class AnnouncementServiceTest {
 
     @Test
     void createFailsWhenEndDateBeforeStartDate() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(1L);
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("OWNER"));
 
         User owner = new User();
         owner.setId(1L);
@@ -81,7 +102,7 @@ class AnnouncementServiceTest {
         LocalDate end = LocalDate.of(2024, 1, 5);
         CreateAnnouncementRequest req = new CreateAnnouncementRequest("title", "desc", null, null, start, end);
 
-        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(token, req);
+        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(user, req);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.BAD_REQUEST);
@@ -91,10 +112,7 @@ class AnnouncementServiceTest {
 
     @Test
     void createPersistsAnnouncementAndReturnsResponse() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(5L);
+        AuthenticatedUser user = new AuthenticatedUser(5L, "user@example.com", Set.of("OWNER"));
 
         User owner = new User();
         owner.setId(5L);
@@ -108,7 +126,7 @@ class AnnouncementServiceTest {
             return a;
         });
 
-        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(token, req);
+        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(user, req);
 
         assertThat(result.hasError()).isFalse();
         CreateAnnouncementResponse body = result.body();
@@ -126,17 +144,112 @@ class AnnouncementServiceTest {
     }
 
     @Test
-    void listAllReturnsMappedAnnouncements() {
+    void createFillsCoordinatesFromCityLookup() {
+        AuthenticatedUser user = new AuthenticatedUser(5L, "user@example.com", Set.of("OWNER"));
         User owner = new User();
-        owner.setId(3L);
-        Announcement a = new Announcement();
-        a.setId(7L);
-        a.setOwner(owner);
-        a.setTitle("t");
-        a.setDescription("d");
-        when(announcementRepository.findByStatus(AnnouncementStatus.OPEN.name())).thenReturn(List.of(a));
+        owner.setId(5L);
+        when(userRepository.findById(5L)).thenReturn(Optional.of(owner));
+        CityCoordinates hamburg = mock(CityCoordinates.class);
+        when(hamburg.getLatitude()).thenReturn(53.5511);
+        when(hamburg.getLongitude()).thenReturn(9.9937);
+        when(cityCoordinatesRepository.findByCityAndCountry("Hamburg", "Germany")).thenReturn(Optional.of(hamburg));
+        when(announcementRepository.save(any(Announcement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        announcementService.create(user, new CreateAnnouncementRequest("t", "d", " Hamburg ", "Germany", null, null));
 
-        List<AnnouncementResponse> result = announcementService.listAll();
+        ArgumentCaptor<Announcement> captor = ArgumentCaptor.forClass(Announcement.class);
+        verify(announcementRepository).save(captor.capture());
+        assertThat(captor.getValue().getLatitude()).isEqualTo(53.5511);
+        assertThat(captor.getValue().getLongitude()).isEqualTo(9.9937);
+    }
+
+    @Test
+    void createRejectsLatitudeWithoutLongitude() {
+        AuthenticatedUser user = new AuthenticatedUser(5L, "user@example.com", Set.of("OWNER"));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(new User()));
+
+        ResponseObject<CreateAnnouncementResponse> result = announcementService.create(user,
+                new CreateAnnouncementRequest("t", "d", null, null, null, null, 53.5, null));
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_LOCATION);
+        verify(announcementRepository, never()).save(any());
+    }
+
+    @Test
+    void nearbyRejectsRadiusAboveMaximum() {
+        ResponseObject<List<NearbyAnnouncementResponse>> result =
+                announcementService.nearby(53.55, 9.99, AnnouncementService.MAX_RADIUS_KM + 1, null);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_LOCATION);
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void nearbyRejectsNonFiniteCoordinates() {
+        for (double[] point : new double[][]{{Double.NaN, 9.99}, {53.55, Double.NaN}, {Double.POSITIVE_INFINITY, 9.99}}) {
+            ResponseObject<List<NearbyAnnouncementResponse>> result =
+                    announcementService.nearby(point[0], point[1], null, null);
+
+            assertThat(result.hasError()).isTrue();
+            assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_LOCATION);
+        }
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void nearbyBoundsSearchWithBoxAroundPoint() {
+        AnnouncementResponse a = response(7L, 3L, "t", "d", Instant.now());
+        when(announcementRepository.findNearby(eq(60.0), eq(10.0), anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(50.0), eq(20)))
+                .thenReturn(List.<Object[]>of(new Object[]{a, 1.5}));
+
+        ResponseObject<List<NearbyAnnouncementResponse>> result = announcementService.nearby(60.0, 10.0, 50.0, null);
+
+        assertThat(result.body()).containsExactly(new NearbyAnnouncementResponse(a, 1.5));
+        ArgumentCaptor<Double> box = ArgumentCaptor.forClass(Double.class);
+        verify(announcementRepository).findNearby(eq(60.0), eq(10.0), box.capture(), box.capture(), box.capture(), box.capture(), eq(50.0), eq(20));
+        // ~0.45 degrees of latitude; twice that in longitude at 60°N
+        List<Double> bounds = box.getAllValues();
+        assertThat(bounds.get(0)).isCloseTo(59.55, within(0.01));
+        assertThat(bounds.get(1)).isCloseTo(60.45, within(0.01));
+        assertThat(bounds.get(2)).isCloseTo(9.10, within(0.01));
+        assertThat(bounds.get(3)).isCloseTo(10.90, within(0.01));
+    }
+
+    @Test
+    void nearbyScansAllLongitudesAcrossAntimeridian() {
+        when(announcementRepository.findNearby(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(List.of());
+
+        announcementService.nearby(-17.7, 179.9, 50.0, null);
+
+        verify(announcementRepository).findNearby(eq(-17.7), eq(179.9), anyDouble(), anyDouble(), eq(-180.0), eq(180.0), eq(50.0), eq(20));
+    }
+
+    @Test
+    void facetsCountOpenAnnouncementsAndSkipDeletedStatus() {
+        when(announcementCountRepository.countByCity(AnnouncementStatus.OPEN.name(), Limit.of(5)))
+                .thenReturn(List.of(new FacetCount("Hamburg", 4L)));
+        when(announcementCountRepository.countByCountry(AnnouncementStatus.OPEN.name(), Limit.of(5)))
+                .thenReturn(List.of(new FacetCount("Germany", 6L)));
+        when(announcementCountRepository.countByStatus(AnnouncementStatus.DELETED.name()))
+                .thenReturn(List.of(new FacetCount("OPEN", 6L)));
+
+        AnnouncementFacetsResponse result = announcementService.facets(5);
+
+        assertThat(result.cities()).containsExactly(new FacetCount("Hamburg", 4L));
+        assertThat(result.countries()).containsExactly(new FacetCount("Germany", 6L));
+        assertThat(result.statuses()).containsExactly(new FacetCount("OPEN", 6L));
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void listAllReturnsProjectedAnnouncements() {
+        when(announcementRepository.findResponsesByStatus(AnnouncementStatus.OPEN.name()))
+                .thenReturn(List.of(response(7L, 3L, "t", "d", Instant.now())));
+
+        List<AnnouncementResponse> result = announcementService.listAll(1L);
 
         assertThat(result).hasSize(1);
         AnnouncementResponse resp = result.get(0);
@@ -146,6 +259,141 @@ class AnnouncementServiceTest {
         assertThat(resp.description()).isEqualTo("d");
     }
 
+    @Test
+    void exportOpenFeedsEveryStreamedRowAndClosesStream() {
+        List<AnnouncementResponse> sink = new ArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(announcementRepository.streamByStatus(AnnouncementStatus.OPEN.name()))
+                .thenReturn(Stream.of(response(1L, 3L, "a", "d", Instant.now()), response(2L, 3L, "b", "d", Instant.now()))
+                        .onClose(() -> closed.set(true)));
+
+        long written = announcementService.exportOpen(sink::add);
+
+        assertThat(written).isEqualTo(2);
+        assertThat(sink).extracting(AnnouncementResponse::id).containsExactly(1L, 2L);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void listPageReturnsNextCursorWhenMoreRowsExist() {
+        AnnouncementResponse newer = response(9L, 3L, "t", "d", Instant.parse("2025-01-02T00:00:00Z"));
+        AnnouncementResponse older = response(8L, 3L, "t", "d", Instant.parse("2025-01-01T00:00:00Z"));
+        when(announcementRepository.findFirstPage(AnnouncementStatus.OPEN.name(), Limit.of(2)))
+                .thenReturn(List.of(newer, older));
+
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.listPage(1, null);
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).extracting(AnnouncementResponse::id).containsExactly(9L);
+        PageCursor next = PageCursor.decode(result.body().next());
+        assertThat(next.id()).isEqualTo(9L);
+        assertThat(next.createdAt()).isEqualTo(newer.createdAt());
+    }
+
+    @Test
+    void listPageContinuesAfterCursorAndEndsWithoutNext() {
+        AnnouncementResponse a = response(4L, 3L, "t", "d", Instant.parse("2025-01-01T00:00:00Z"));
+        PageCursor cursor = new PageCursor(Instant.parse("2025-01-02T00:00:00Z"), 9L);
+        when(announcementRepository.findPageAfter(AnnouncementStatus.OPEN.name(), cursor.createdAt(), 9L, Limit.of(11)))
+                .thenReturn(List.of(a));
+
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.listPage(10, cursor.encode());
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).hasSize(1);
+        assertThat(result.body().next()).isNull();
+    }
+
+    @Test
+    void listPageRejectsMalformedCursor() {
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.listPage(10, "not-a-cursor");
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_CURSOR);
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void searchRejectsEndDateBeforeStartDate() {
+        SearchAnnouncementsRequest req = new SearchAnnouncementsRequest(
+                "Hamburg", null, LocalDate.of(2025, 5, 10), LocalDate.of(2025, 5, 1));
+
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.search(req, null, null);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_DATES);
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchReturnsMatchingPage() {
+        AnnouncementResponse a = new AnnouncementResponse(
+                7L, 3L, "t", "d", "Hamburg", "Germany", null, null, AnnouncementStatus.OPEN.name(), Instant.now(), 7L, Instant.now(), 0);
+        when(announcementRepository.search(any(Specification.class), any(Sort.class), eq(6))).thenReturn(List.of(a));
+
+        SearchAnnouncementsRequest req = new SearchAnnouncementsRequest("hamburg", "Germany", null, null);
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.search(req, 5, null);
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).extracting(AnnouncementResponse::city).containsExactly("Hamburg");
+        assertThat(result.body().next()).isNull();
+    }
+
+    @Test
+    void searchTextRejectsBlankQuery() {
+        ResponseObject<List<AnnouncementResponse>> result = announcementService.searchText("  ", 0, null);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_SEARCH_QUERY);
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void searchTextTranslatesPageToOffset() {
+        AnnouncementResponse a = response(7L, 3L, "vaccinated lop", "d", Instant.now());
+        when(announcementRepository.searchText("vaccinated lop", 10, 20)).thenReturn(List.of(a));
+
+        ResponseObject<List<AnnouncementResponse>> result = announcementService.searchText(" vaccinated lop ", 2, 10);
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body()).extracting(AnnouncementResponse::id).containsExactly(7L);
+    }
+
+    @Test
+    void searchTextRejectsPageBeyondMaxOffset() {
+        ResponseObject<List<AnnouncementResponse>> result = announcementService.searchText("lop", Integer.MAX_VALUE, 100);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_PAGE);
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void availableRejectsToBeforeFrom() {
+        ResponseObject<PageResponse<AnnouncementResponse>> result =
+                announcementService.available(LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 1), null, null);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_DATES);
+        verifyNoInteractions(announcementRepository);
+    }
+
+    @Test
+    void availableWithoutToSearchesSingleDay() {
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        when(announcementRepository.findAvailableFirstPage(day, day, 3))
+                .thenReturn(List.of(response(7L, 3L, "t", "d", Instant.now())));
+
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.available(day, null, 2, null);
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).extracting(AnnouncementResponse::id).containsExactly(7L);
+        assertThat(result.body().next()).isNull();
+    }
+
     @Test
     void applyReturnsErrorWhenAnnouncementNotFound() {
         when(announcementRepository.findById(1L)).thenReturn(Optional.empty());
@@ -186,27 +434,14 @@ class AnnouncementServiceTest {
 
     @Test
     void listApplicationsForOwnerReturnsApplications() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(5L);
-
-        User owner = new User();
-        owner.setId(5L);
-        when(userRepository.findById(5L)).thenReturn(Optional.of(owner));
+        AuthenticatedUser user = new AuthenticatedUser(5L, "user@example.com", Set.of("OWNER"));
 
-        Announcement announcement = new Announcement();
-        announcement.setId(7L);
-        announcement.setOwner(owner);
+        when(userRepository.existsById(5L)).thenReturn(true);
 
-        AnnouncementApplication app = new AnnouncementApplication();
-        app.setId(3L);
-        app.setAnnouncement(announcement);
-        app.setMessage("hello");
-        app.setContact("email");
-        when(announcementApplicationRepository.findByAnnouncementOwnerIdAndAnnouncementStatus(5L, AnnouncementStatus.OPEN.name())).thenReturn(List.of(app));
+        AnnouncementApplicationResponse app = new AnnouncementApplicationResponse(3L, 7L, "hello", "email", Instant.now());
+        when(announcementApplicationRepository.findResponsesByOwnerIdAndStatus(5L, AnnouncementStatus.OPEN.name())).thenReturn(List.of(app));
 
-        ResponseObject<List<AnnouncementApplicationResponse>> result = announcementService.listApplicationsForOwner(token);
+        ResponseObject<List<AnnouncementApplicationResponse>> result = announcementService.listApplicationsForOwner(user);
 
         assertThat(result.hasError()).isFalse();
         List<AnnouncementApplicationResponse> list = result.body();
@@ -217,44 +452,118 @@ class AnnouncementServiceTest {
         assertThat(resp.message()).isEqualTo("hello");
     }
 
+    @Test
+    void applicationsPageReturnsNextCursorWhenMoreRowsExist() {
+        AuthenticatedUser user = new AuthenticatedUser(5L, "user@example.com", Set.of("OWNER"));
+        Instant now = Instant.now();
+        when(announcementApplicationRepository.findInboxFirstPage(5L, AnnouncementStatus.OPEN.name(), Limit.of(2)))
+                .thenReturn(List.of(
+                        new AnnouncementApplicationResponse(9L, 7L, "b", "email", now),
+                        new AnnouncementApplicationResponse(8L, 6L, "a", "email", now.minusSeconds(1))));
+
+        ResponseObject<PageResponse<AnnouncementApplicationResponse>> result =
+                announcementService.applicationsPage(user, null, 1, null);
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).extracting(AnnouncementApplicationResponse::id).containsExactly(9L);
+        assertThat(PageCursor.decode(result.body().next())).isEqualTo(new PageCursor(now, 9L));
+    }
+
+    @Test
+    void applicationsPageForOneAnnouncementContinuesAfterCursor() {
+        AuthenticatedUser user = new AuthenticatedUser(5L, "user@example.com", Set.of("OWNER"));
+        PageCursor cursor = new PageCursor(Instant.now(), 9L);
+        AnnouncementApplicationResponse app = new AnnouncementApplicationResponse(8L, 7L, "a", "email", cursor.createdAt());
+        when(announcementApplicationRepository.findInboxPageAfter(
+                5L, AnnouncementStatus.OPEN.name(), 7L, cursor.createdAt(), 9L, Limit.of(21)))
+                .thenReturn(List.of(app));
+
+        ResponseObject<PageResponse<AnnouncementApplicationResponse>> result =
+                announcementService.applicationsPage(user, 7L, null, cursor.encode());
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).containsExactly(app);
+        assertThat(result.body().next()).isNull();
+    }
+
     @Test
     void closeExpiredReturnsForbiddenForNonAdmin() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("roles", List.class)).thenReturn(List.of("OWNER"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("OWNER"));
 
-        ResponseObject<CloseExpiredAnnouncementsResponse> result = announcementService.closeExpired(token);
+        ResponseObject<CloseExpiredAnnouncementsResponse> result = announcementService.closeExpired(user);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.FORBIDDEN);
-        verify(announcementRepository, never()).saveAll(any());
+        verify(announcementExpiryJob, never()).runOnce();
     }
 
     @Test
     void closeExpiredClosesAnnouncementsAndReturnsCount() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("roles", List.class)).thenReturn(List.of("ADMIN"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("ADMIN"));
 
-        Announcement a = new Announcement();
-        a.setEndDate(LocalDate.now().minusDays(1));
-        a.setStatus(AnnouncementStatus.OPEN.name());
-        when(announcementRepository.findByStatusAndEndDateBefore(eq(AnnouncementStatus.OPEN.name()), any(LocalDate.class)))
-                .thenReturn(List.of(a));
+        when(announcementExpiryJob.runOnce()).thenReturn(OptionalInt.of(2007));
 
-        ResponseObject<CloseExpiredAnnouncementsResponse> result = announcementService.closeExpired(token);
+        ResponseObject<CloseExpiredAnnouncementsResponse> result = announcementService.closeExpired(user);
 
         assertThat(result.hasError()).isFalse();
-        assertThat(result.body().count()).isEqualTo(1);
-        assertThat(a.getStatus()).isEqualTo(AnnouncementStatus.CLOSED.name());
-        verify(announcementRepository).saveAll(List.of(a));
+        assertThat(result.body().count()).isEqualTo(2007);
+        verify(announcementExpiryJob).runOnce();
+    }
+
+    @Test
+    void closeExpiredReturnsConflictWhileAnotherRunHoldsTheLock() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("ADMIN"));
+        when(announcementExpiryJob.runOnce()).thenReturn(OptionalInt.empty());
+
+        ResponseObject<CloseExpiredAnnouncementsResponse> result = announcementService.closeExpired(user);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.EXPIRY_IN_PROGRESS);
+    }
+
+    @Test
+    void listArchivedReturnsForbiddenForNonAdmin() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("OWNER"));
+
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.listArchived(user, null, null);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(archivedAnnouncementRepository);
+    }
+
+    @Test
+    void listArchivedPagesNewestFirst() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("ADMIN"));
+        Instant now = Instant.now();
+        when(archivedAnnouncementRepository.findFirstPage(Limit.of(3))).thenReturn(List.of(
+                response(3L, 1L, "c", "d", now),
+                response(2L, 1L, "b", "d", now.minusSeconds(1)),
+                response(1L, 1L, "a", "d", now.minusSeconds(2))));
+
+        ResponseObject<PageResponse<AnnouncementResponse>> result = announcementService.listArchived(user, 2, null);
+
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.body().items()).extracting(AnnouncementResponse::id).containsExactly(3L, 2L);
+        assertThat(PageCursor.decode(result.body().next())).isEqualTo(new PageCursor(now.minusSeconds(1), 2L));
+    }
+
+    @Test
+    void getArchivedReturnsNotFoundWhenNotArchived() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("ADMIN"));
+        when(archivedAnnouncementRepository.findById(5L)).thenReturn(Optional.empty());
+
+        ResponseObject<ArchivedAnnouncementResponse> result = announcementService.getArchived(user, 5L);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.NOT_FOUND);
+        verify(archivedAnnouncementRepository, never()).findApplications(any());
     }
 
     @Test
     void getReturnsErrorWhenAnnouncementNotFound() {
-        when(announcementRepository.findById(1L)).thenReturn(Optional.empty());
+        when(announcementRepository.findResponseById(1L, AnnouncementStatus.DELETED.name())).thenReturn(Optional.empty());
 
         ResponseObject<AnnouncementResponse> result = announcementService.get(1L);
 
@@ -264,15 +573,9 @@ class AnnouncementServiceTest {
     }
 
     @Test
-    void getReturnsMappedAnnouncement() {
-        User owner = new User();
-        owner.setId(3L);
-        Announcement a = new Announcement();
-        a.setId(7L);
-        a.setOwner(owner);
-        a.setTitle("t");
-        a.setDescription("d");
-        when(announcementRepository.findById(7L)).thenReturn(Optional.of(a));
+    void getReturnsProjectedAnnouncement() {
+        when(announcementRepository.findResponseById(7L, AnnouncementStatus.DELETED.name()))
+                .thenReturn(Optional.of(response(7L, 3L, "t", "d", Instant.now())));
 
         ResponseObject<AnnouncementResponse> result = announcementService.get(7L);
 
@@ -286,12 +589,9 @@ class AnnouncementServiceTest {
 
     @Test
     void moderateReturnsForbiddenForNonAdmin() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("roles", List.class)).thenReturn(List.of("OWNER"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("OWNER"));
 
-        ResponseObject<ModerateAnnouncementResponse> result = announcementService.moderate(token, 1L, AnnouncementStatus.CLOSED);
+        ResponseObject<ModerateAnnouncementResponse> result = announcementService.moderate(user, 1L, AnnouncementStatus.CLOSED);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.FORBIDDEN);
@@ -300,13 +600,10 @@ class AnnouncementServiceTest {
 
     @Test
     void moderateReturnsNotFoundWhenAnnouncementMissing() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("roles", List.class)).thenReturn(List.of("ADMIN"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("ADMIN"));
         when(announcementRepository.findById(5L)).thenReturn(Optional.empty());
 
-        ResponseObject<ModerateAnnouncementResponse> result = announcementService.moderate(token, 5L, AnnouncementStatus.CLOSED);
+        ResponseObject<ModerateAnnouncementResponse> result = announcementService.moderate(user, 5L, AnnouncementStatus.CLOSED);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.NOT_FOUND);
@@ -314,17 +611,14 @@ class AnnouncementServiceTest {
 
     @Test
     void moderateUpdatesStatusWhenAdmin() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("roles", List.class)).thenReturn(List.of("ADMIN"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("ADMIN"));
 
         Announcement a = new Announcement();
         a.setId(5L);
         a.setStatus(AnnouncementStatus.OPEN.name());
         when(announcementRepository.findById(5L)).thenReturn(Optional.of(a));
 
-        ResponseObject<ModerateAnnouncementResponse> result = announcementService.moderate(token, 5L, AnnouncementStatus.CLOSED);
+        ResponseObject<ModerateAnnouncementResponse> result = announcementService.moderate(user, 5L, AnnouncementStatus.CLOSED);
 
         assertThat(result.hasError()).isFalse();
         assertThat(a.getStatus()).isEqualTo(AnnouncementStatus.CLOSED.name());
@@ -333,14 +627,10 @@ class AnnouncementServiceTest {
 
     @Test
     void deleteReturnsErrorWhenAnnouncementNotFound() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(1L);
-        when(claims.get("roles", List.class)).thenReturn(List.of("OWNER"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("OWNER"));
         when(announcementRepository.findById(5L)).thenReturn(Optional.empty());
 
-        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(token, 5L);
+        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(user, 5L);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.NOT_FOUND);
@@ -349,11 +639,7 @@ class AnnouncementServiceTest {
 
     @Test
     void deleteFailsWhenUserIsNotOwnerOrAdmin() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(2L);
-        when(claims.get("roles", List.class)).thenReturn(List.of("OWNER"));
+        AuthenticatedUser user = new AuthenticatedUser(2L, "user@example.com", Set.of("OWNER"));
 
         User owner = new User();
         owner.setId(1L);
@@ -362,7 +648,7 @@ class AnnouncementServiceTest {
         a.setOwner(owner);
         when(announcementRepository.findById(5L)).thenReturn(Optional.of(a));
 
-        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(token, 5L);
+        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(user, 5L);
 
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.FORBIDDEN);
@@ -372,11 +658,7 @@ class AnnouncementServiceTest {
 
     @Test
     void deleteDeletesWhenOwner() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(1L);
-        when(claims.get("roles", List.class)).thenReturn(List.of("OWNER"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@example.com", Set.of("OWNER"));
 
         User owner = new User();
         owner.setId(1L);
@@ -385,7 +667,7 @@ class AnnouncementServiceTest {
         a.setOwner(owner);
         when(announcementRepository.findById(5L)).thenReturn(Optional.of(a));
 
-        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(token, 5L);
+        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(user, 5L);
 
         assertThat(result.hasError()).isFalse();
         assertThat(a.getStatus()).isEqualTo(AnnouncementStatus.DELETED.name());
@@ -396,11 +678,7 @@ class AnnouncementServiceTest {
 
     @Test
     void deleteDeletesWhenAdmin() {
-        String token = "token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(token)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(9L);
-        when(claims.get("roles", List.class)).thenReturn(List.of("ADMIN"));
+        AuthenticatedUser user = new AuthenticatedUser(9L, "user@example.com", Set.of("ADMIN"));
 
         User owner = new User();
         owner.setId(1L);
@@ -409,7 +687,7 @@ class AnnouncementServiceTest {
         a.setOwner(owner);
         when(announcementRepository.findById(5L)).thenReturn(Optional.of(a));
 
-        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(token, 5L);
+        ResponseObject<DeleteAnnouncementResponse> result = announcementService.delete(user, 5L);
 
         assertThat(result.hasError()).isFalse();
         assertThat(a.getStatus()).isEqualTo(AnnouncementStatus.DELETED.name());
@@ -417,5 +695,9 @@ class AnnouncementServiceTest {
         assertThat(result.body().status()).isEqualTo(AnnouncementStatus.DELETED);
         verify(announcementRepository).save(a);
     }
-}
 
+    private static AnnouncementResponse response(Long id, Long ownerId, String title, String description, Instant createdAt) {
+        return new AnnouncementResponse(
+                id, ownerId, title, description, null, null, null, null, AnnouncementStatus.OPEN.name(), createdAt, id, createdAt, 0);
+    }
+}
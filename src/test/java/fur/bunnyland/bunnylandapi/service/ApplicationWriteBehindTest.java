@@ -0,0 +1,237 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.api.dto.announce.AnnouncementResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAcceptedResponse;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAnnouncementRequest;
+import fur.bunnyland.bunnylandapi.domain.AnnouncementStatus;
+import fur.bunnyland.bunnylandapi.domain.ErrorCode;
+import fur.bunnyland.bunnylandapi.domain.MessageError;
+import fur.bunnyland.bunnylandapi.domain.ResponseObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.ANNOUNCEMENTS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationWriteBehindTest {
+
+    private static final ApplyAnnouncementRequest REQ = new ApplyAnnouncementRequest("hi", "email");
+
+    @Mock
+    private AnnouncementService announcementService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(ANNOUNCEMENTS);
+
+    // Runs callbacks without a real transaction manager behind it
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    private ApplicationWriteBehind buffer(int capacity) {
+        return new ApplicationWriteBehind(announcementService, jdbcTemplate, transactionTemplate, cacheManager,
+                meterRegistry, capacity, 500, 3, Duration.ZERO, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void submitRejectsAnnouncementThatIsNotOpen() {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.ok(announcement(7L, AnnouncementStatus.CLOSED)));
+
+        ResponseObject<ApplyAcceptedResponse> result = buffer(10).submit(7L, REQ);
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.NOT_FOUND);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void submitRejectsMissingAnnouncement() {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.fail(
+                new MessageError(HttpStatus.NOT_FOUND, ErrorCode.ANNOUNCEMENT_NOT_FOUND, "nf", "nf")));
+
+        ResponseObject<ApplyAcceptedResponse> result = buffer(10).submit(7L, REQ);
+
+        assertThat(result.error().status()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void submitHandsOutIdsFromSequenceBlocks() {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.ok(announcement(7L, AnnouncementStatus.OPEN)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        ApplicationWriteBehind buffer = buffer(10);
+
+        ResponseObject<ApplyAcceptedResponse> first = buffer.submit(7L, REQ);
+        ResponseObject<ApplyAcceptedResponse> second = buffer.submit(7L, REQ);
+
+        assertThat(first.body().id()).isEqualTo(100L - ApplicationWriteBehind.ID_BLOCK + 1);
+        assertThat(second.body().id()).isEqualTo(first.body().id() + 1);
+        assertThat(first.body().announcementId()).isEqualTo(7L);
+        // one sequence call serves the whole block
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void submitStartsAtOneOnAFreshSequence() {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.ok(announcement(7L, AnnouncementStatus.OPEN)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L, 51L);
+        ApplicationWriteBehind buffer = buffer(10);
+
+        long first = buffer.submit(7L, REQ).body().id();
+        long second = buffer.submit(7L, REQ).body().id();
+
+        assertThat(first).isEqualTo(1L);
+        assertThat(second).isEqualTo(2L);
+    }
+
+    @Test
+    void submitRefusesWhenQueueIsFull() {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.ok(announcement(7L, AnnouncementStatus.OPEN)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        ApplicationWriteBehind buffer = buffer(1);
+
+        assertThat(buffer.submit(7L, REQ).hasError()).isFalse();
+        ResponseObject<ApplyAcceptedResponse> refused = buffer.submit(7L, REQ);
+
+        assertThat(refused.hasError()).isTrue();
+        assertThat(refused.error().status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(refused.error().code()).isEqualTo(ErrorCode.APPLY_QUEUE_FULL);
+        assertThat(meterRegistry.get("applications.write_behind.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drainOnceWritesQueuedApplicationsInOneBatch() throws Exception {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.ok(announcement(7L, AnnouncementStatus.OPEN)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        when(jdbcTemplate.batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList())).thenReturn(new int[]{1, 1, 0});
+        ApplicationWriteBehind buffer = buffer(10);
+        buffer.submit(7L, REQ);
+        buffer.submit(7L, REQ);
+        buffer.submit(7L, REQ);
+        cacheManager.getCache(ANNOUNCEMENTS).put(7L, "cached");
+
+        int drained = buffer.drainOnce(Duration.ZERO);
+
+        assertThat(drained).isEqualTo(3);
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(ApplicationWriteBehind.INSERT), args.capture());
+        assertThat(args.getValue()).hasSize(3);
+        assertThat(args.getValue().get(0)).containsSubsequence(51L, "hi", "email");
+        assertThat(meterRegistry.get("applications.write_behind.written").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("applications.write_behind.dropped").counter().count()).isEqualTo(1.0);
+        // the cached announcement now shows a stale applicationCount
+        assertThat(cacheManager.getCache(ANNOUNCEMENTS).get(7L)).isNull();
+        assertThat(buffer.drainOnce(Duration.ZERO)).isZero();
+    }
+
+    @Test
+    void drainOnceRetriesAFailedBatch() throws Exception {
+        ApplicationWriteBehind buffer = queued(2);
+        when(jdbcTemplate.batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList()))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenReturn(new int[]{1, 1});
+
+        assertThat(buffer.drainOnce(Duration.ZERO)).isEqualTo(2);
+
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        assertThat(meterRegistry.get("applications.write_behind.written").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("applications.write_behind.retried").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("applications.write_behind.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void drainOnceFallsBackToRowByRowAndRejectsOnlyTheBadRow() throws Exception {
+        ApplicationWriteBehind buffer = queued(2);
+        when(jdbcTemplate.batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(jdbcTemplate.update(eq(ApplicationWriteBehind.INSERT), any(Object[].class)))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(1);
+
+        assertThat(buffer.drainOnce(Duration.ZERO)).isEqualTo(2);
+
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList());
+        verify(jdbcTemplate, times(2)).update(eq(ApplicationWriteBehind.INSERT), any(Object[].class));
+        assertThat(meterRegistry.get("applications.write_behind.written").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("applications.write_behind.failed").counter().count()).isEqualTo(1.0);
+        assertThat(buffer.drainOnce(Duration.ZERO)).isZero();
+    }
+
+    @Test
+    void drainOnceKeepsRowsWhileTheDatabaseIsDown() throws Exception {
+        ApplicationWriteBehind buffer = queued(2);
+        when(jdbcTemplate.batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        when(jdbcTemplate.update(eq(ApplicationWriteBehind.INSERT), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertThat(buffer.drainOnce(Duration.ZERO)).isEqualTo(2);
+        assertThat(meterRegistry.get("applications.write_behind.failed").counter().count()).isZero();
+
+        // back up: the kept rows are written on the next drain, nothing was queued since
+        reset(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList())).thenReturn(new int[]{1, 1});
+
+        assertThat(buffer.drainOnce(Duration.ZERO)).isEqualTo(2);
+        assertThat(meterRegistry.get("applications.write_behind.written").counter().count()).isEqualTo(2.0);
+        assertThat(buffer.drainOnce(Duration.ZERO)).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drainOnceWritesInAnnouncementOrder() throws Exception {
+        when(announcementService.get(anyLong())).thenAnswer(inv ->
+                ResponseObject.ok(announcement(inv.getArgument(0), AnnouncementStatus.OPEN)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        when(jdbcTemplate.batchUpdate(eq(ApplicationWriteBehind.INSERT), anyList())).thenReturn(new int[]{1, 1, 1});
+        ApplicationWriteBehind buffer = buffer(10);
+        buffer.submit(9L, REQ);
+        buffer.submit(3L, REQ);
+        buffer.submit(5L, REQ);
+
+        buffer.drainOnce(Duration.ZERO);
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(ApplicationWriteBehind.INSERT), args.capture());
+        assertThat(args.getValue()).extracting(row -> row[4]).containsExactly(3L, 5L, 9L);
+    }
+
+    private ApplicationWriteBehind queued(int applications) {
+        when(announcementService.get(7L)).thenReturn(ResponseObject.ok(announcement(7L, AnnouncementStatus.OPEN)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        ApplicationWriteBehind buffer = buffer(10);
+        for (int i = 0; i < applications; i++) {
+            buffer.submit(7L, REQ);
+        }
+        return buffer;
+    }
+
+    private static AnnouncementResponse announcement(Long id, AnnouncementStatus status) {
+        Instant now = Instant.now();
+        return new AnnouncementResponse(id, 1L, "t", "d", null, null, null, null, status.name(), now, 1L, now, 0);
+    }
+}
@@ -0,0 +1,183 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAnnouncementRequest;
+import fur.bunnyland.bunnylandapi.api.dto.announce.ApplyAnnouncementResponse;
+import fur.bunnyland.bunnylandapi.domain.ErrorCode;
+import fur.bunnyland.bunnylandapi.domain.IdempotencyKey;
+import fur.bunnyland.bunnylandapi.domain.MessageError;
+import fur.bunnyland.bunnylandapi.domain.ResponseObject;
+import fur.bunnyland.bunnylandapi.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static fur.bunnyland.bunnylandapi.config.CacheConfig.IDEMPOTENCY_KEYS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final ApplyAnnouncementRequest REQ = new ApplyAnnouncementRequest("hi", "email");
+    private static final ApplyAnnouncementResponse APPLIED =
+            new ApplyAnnouncementResponse(5L, 7L, "hi", "email", Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private IdempotencyService service() {
+        return new IdempotencyService(idempotencyKeyRepository, objectMapper,
+                new ConcurrentMapCacheManager(IDEMPOTENCY_KEYS), new SimpleMeterRegistry(),
+                Duration.ofHours(24), Duration.ofMinutes(1));
+    }
+
+    private Supplier<ResponseObject<ApplyAnnouncementResponse>> apply() {
+        return () -> {
+            calls.incrementAndGet();
+            return ResponseObject.ok(APPLIED);
+        };
+    }
+
+    @Test
+    void withoutKeyTheActionJustRuns() {
+        ResponseObject<ApplyAnnouncementResponse> result =
+                service().execute("apply:7", null, REQ, ApplyAnnouncementResponse.class, apply());
+
+        assertThat(result.body()).isEqualTo(APPLIED);
+        assertThat(calls).hasValue(1);
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void blankKeyIsRejected() {
+        ResponseObject<ApplyAnnouncementResponse> result =
+                service().execute("apply:7", " ", REQ, ApplyAnnouncementResponse.class, apply());
+
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_IDEMPOTENCY_KEY);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void firstRequestRunsAndStoresItsResult() {
+        when(idempotencyKeyRepository.claim(eq("apply:7"), eq("k"), anyString(), eq(86400L), eq(60L))).thenReturn(1);
+        IdempotencyService service = service();
+
+        ResponseObject<ApplyAnnouncementResponse> first =
+                service.execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class, apply());
+        ResponseObject<ApplyAnnouncementResponse> retry =
+                service.execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class, apply());
+
+        assertThat(first.body()).isEqualTo(APPLIED);
+        assertThat(retry.body()).isEqualTo(APPLIED);
+        assertThat(calls).hasValue(1);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyKeyRepository).complete(eq("apply:7"), eq("k"), stored.capture());
+        assertThat(stored.getValue()).contains("\"id\":5");
+        // The retry was answered from memory
+        verify(idempotencyKeyRepository, times(1)).claim(anyString(), anyString(), anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void retryIsReplayedFromTheTableWithoutRunningTheAction() {
+        IdempotencyService service = service();
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(1);
+        service.execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class, apply());
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyKeyRepository).complete(anyString(), anyString(), stored.capture());
+        ArgumentCaptor<String> fingerprint = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyKeyRepository).claim(anyString(), anyString(), fingerprint.capture(), anyLong(), anyLong());
+
+        // A fresh instance has an empty cache, as on another node
+        IdempotencyService other = service();
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(new IdempotencyKey.Id("apply:7", "k")))
+                .thenReturn(Optional.of(row(fingerprint.getValue(), stored.getValue())));
+
+        ResponseObject<ApplyAnnouncementResponse> retry =
+                other.execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class, apply());
+
+        assertThat(retry.body()).isEqualTo(APPLIED);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void keyReusedWithDifferentBodyIsRejected() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(1);
+        IdempotencyService service = service();
+        service.execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class, apply());
+
+        ResponseObject<ApplyAnnouncementResponse> result = service.execute("apply:7", "k",
+                new ApplyAnnouncementRequest("other", "email"), ApplyAnnouncementResponse.class, apply());
+
+        assertThat(result.error().status()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void unfinishedClaimIsReportedAsInProgress() {
+        IdempotencyService service = service();
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(any())).thenReturn(Optional.empty());
+
+        ResponseObject<ApplyAnnouncementResponse> result =
+                service.execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class, apply());
+
+        assertThat(result.error().status()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.IDEMPOTENCY_IN_PROGRESS);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void failedActionReleasesTheClaim() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(1);
+
+        assertThatThrownBy(() -> service().execute("apply:7", "k", REQ, ApplyAnnouncementResponse.class,
+                () -> {
+                    throw new IllegalStateException("boom");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(idempotencyKeyRepository).release("apply:7", "k");
+        verify(idempotencyKeyRepository, never()).complete(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void serverErrorIsNotStored() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(1);
+
+        ResponseObject<ApplyAnnouncementResponse> result = service().execute("apply:7", "k", REQ,
+                ApplyAnnouncementResponse.class, () -> ResponseObject.fail(new MessageError(
+                        HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.APPLY_QUEUE_FULL, "busy", "busy")));
+
+        assertThat(result.error().status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(idempotencyKeyRepository).release("apply:7", "k");
+        verify(idempotencyKeyRepository, never()).complete(anyString(), anyString(), anyString());
+    }
+
+    private static IdempotencyKey row(String fingerprint, String response) {
+        IdempotencyKey row = new IdempotencyKey();
+        ReflectionTestUtils.setField(row, "fingerprint", fingerprint);
+        ReflectionTestUtils.setField(row, "response", response);
+        return row;
+    }
+}
@@ -0,0 +1,135 @@
+package fur.bunnyland.bunnylandapi.service;
+
+import fur.bunnyland.bunnylandapi.domain.RefreshToken;
+import fur.bunnyland.bunnylandapi.domain.User;
+import fur.bunnyland.bunnylandapi.repository.RefreshTokenRepository;
+import fur.bunnyland.bunnylandapi.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final UUID JTI = UUID.randomUUID();
+    private static final UUID FAMILY = UUID.randomUUID();
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RefreshTokenService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtil.getRefreshTtlSeconds()).thenReturn(604800L);
+        service = new RefreshTokenService(refreshTokenRepository, jwtUtil, meterRegistry);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("owner@example.com");
+    }
+
+    private static Claims claims(UUID jti, UUID family) {
+        Claims claims = Jwts.claims().setId(jti.toString());
+        claims.put(JwtUtil.FAMILY_CLAIM, family.toString());
+        return claims;
+    }
+
+    private static RefreshToken stored(Instant usedAt, Instant revokedAt) {
+        RefreshToken token = new RefreshToken();
+        ReflectionTestUtils.setField(token, "jti", JTI);
+        ReflectionTestUtils.setField(token, "familyId", FAMILY);
+        ReflectionTestUtils.setField(token, "usedAt", usedAt);
+        ReflectionTestUtils.setField(token, "revokedAt", revokedAt);
+        return token;
+    }
+
+    @Test
+    void issueStartsANewFamily() {
+        when(jwtUtil.generateRefreshToken(eq(42L), eq("owner@example.com"), any(), any())).thenReturn("rt");
+
+        assertThat(service.issue(user)).isEqualTo("rt");
+
+        verify(refreshTokenRepository).insert(any(), any(), eq(42L), any());
+    }
+
+    @Test
+    void rotateSpendsTheTokenAndIssuesTheNextInTheSameFamily() {
+        when(refreshTokenRepository.markUsed(JTI)).thenReturn(1);
+        when(jwtUtil.generateRefreshToken(eq(42L), eq("owner@example.com"), any(), eq(FAMILY))).thenReturn("next");
+
+        assertThat(service.rotate(claims(JTI, FAMILY), user)).contains("next");
+
+        verify(refreshTokenRepository).insert(argThat(jti -> !jti.equals(JTI)), eq(FAMILY), eq(42L), any());
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void reusingASpentTokenRevokesTheFamily() {
+        when(refreshTokenRepository.markUsed(JTI)).thenReturn(0);
+        when(refreshTokenRepository.findById(JTI)).thenReturn(Optional.of(stored(Instant.now(), null)));
+
+        assertThat(service.rotate(claims(JTI, FAMILY), user)).isEmpty();
+
+        verify(refreshTokenRepository).revokeFamily(FAMILY);
+        verify(refreshTokenRepository, never()).insert(any(), any(), any(), any());
+        assertThat(meterRegistry.counter("auth.refresh_tokens.reused").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void revokedFamilyIsRefusedWithoutTouchingTheDatabase() {
+        service.revoke(claims(JTI, FAMILY));
+        clearInvocations(refreshTokenRepository);
+
+        assertThat(service.rotate(claims(UUID.randomUUID(), FAMILY), user)).isEmpty();
+
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void unknownOrExpiredTokenIsRefusedWithoutRevoking() {
+        when(refreshTokenRepository.markUsed(JTI)).thenReturn(0);
+        when(refreshTokenRepository.findById(JTI)).thenReturn(Optional.empty());
+
+        assertThat(service.rotate(claims(JTI, FAMILY), user)).isEmpty();
+
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void tokenWithoutJtiIsRefused() {
+        Claims claims = Jwts.claims().setSubject("owner@example.com");
+
+        assertThat(service.rotate(claims, user)).isEmpty();
+
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void purgeRunsInBatchesUntilDrained() {
+        when(refreshTokenRepository.purgeExpired(RefreshTokenService.PURGE_BATCH_SIZE))
+                .thenReturn(RefreshTokenService.PURGE_BATCH_SIZE, 3);
+
+        service.purgeExpired();
+
+        verify(refreshTokenRepository, times(2)).purgeExpired(RefreshTokenService.PURGE_BATCH_SIZE);
+    }
+}
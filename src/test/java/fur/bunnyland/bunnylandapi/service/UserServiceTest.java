@@ -5,6 +5,7 @@ import fur.bunnyland.bunnylandapi.domain.ErrorCode;
 import fur.bunnyland.bunnylandapi.domain.ResponseObject;
 import fur.bunnyland.bunnylandapi.domain.User;
 import fur.bunnyland.bunnylandapi.repository.UserRepository;
+import fur.bunnyland.bunnylandapi.security.AuthenticatedUser;
 import fur.bunnyland.bunnylandapi.security.JwtUtil;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
@@ -20,6 +21,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -39,6 +41,9 @@ class UserServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @Test
     void registerOwnerReturnsConflictWhenEmailTaken() {
         RegisterRequest request = new RegisterRequest("test@example.com", "password", "name", "city", "country");
@@ -91,7 +96,7 @@ class UserServiceTest {
         assertThat(result.error().code()).isEqualTo(ErrorCode.USER_NOT_FOUND);
         verify(passwordEncoder, never()).matches(anyString(), anyString());
         verify(jwtUtil, never()).generateAccessToken(any(), any(), any());
-        verify(jwtUtil, never()).generateRefreshToken(any(), any());
+        verify(refreshTokenService, never()).issue(any());
     }
 
     @Test
@@ -113,7 +118,7 @@ class UserServiceTest {
         assertThat(result.error().status()).isEqualTo(HttpStatus.UNAUTHORIZED);
         assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_CREDENTIALS);
         verify(jwtUtil, never()).generateAccessToken(any(), any(), any());
-        verify(jwtUtil, never()).generateRefreshToken(any(), any());
+        verify(refreshTokenService, never()).issue(any());
     }
 
     @Test
@@ -131,8 +136,7 @@ class UserServiceTest {
 
         when(jwtUtil.generateAccessToken(42L, "admin@bunnyland.com", Set.of("ADMIN")))
                 .thenReturn("access-token");
-        when(jwtUtil.generateRefreshToken(42L, "admin@bunnyland.com"))
-                .thenReturn("refresh-token");
+        when(refreshTokenService.issue(user)).thenReturn("refresh-token");
         when(jwtUtil.getAccessTtlSeconds()).thenReturn(900L);
 
         var result = userService.login(req);
@@ -148,10 +152,49 @@ class UserServiceTest {
         assertThat(body.expiresIn()).isEqualTo(900L);
 
         verify(jwtUtil).generateAccessToken(42L, "admin@bunnyland.com", Set.of("ADMIN"));
-        verify(jwtUtil).generateRefreshToken(42L, "admin@bunnyland.com");
+        verify(refreshTokenService).issue(user);
         verify(jwtUtil).getAccessTtlSeconds();
     }
 
+    @Test
+    void loginRehashesPasswordWhenStrengthWentUp() {
+        var user = new User();
+        user.setId(42L);
+        user.setEmail("admin@bunnyland.com");
+        user.setPasswordHash("weak-hash");
+        user.setRoles(Set.of("ADMIN"));
+
+        when(userRepository.findByEmailIgnoreCase("admin@bunnyland.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("admin123", "weak-hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("weak-hash")).thenReturn(true);
+        when(passwordEncoder.encode("admin123")).thenReturn("strong-hash");
+
+        var result = userService.login(new LoginRequest("admin@bunnyland.com", "admin123"));
+
+        assertThat(result.hasError()).isFalse();
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertThat(saved.getValue().getPasswordHash()).isEqualTo("strong-hash");
+    }
+
+    @Test
+    void loginReturnsServiceUnavailableWhenHashingPoolIsFull() {
+        var user = new User();
+        user.setId(42L);
+        user.setEmail("admin@bunnyland.com");
+        user.setPasswordHash("hashed");
+
+        when(userRepository.findByEmailIgnoreCase("admin@bunnyland.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("admin123", "hashed")).thenThrow(new RejectedExecutionException());
+
+        var result = userService.login(new LoginRequest("admin@bunnyland.com", "admin123"));
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.SERVICE_BUSY);
+        verify(jwtUtil, never()).generateAccessToken(any(), any(), any());
+    }
+
     @Test
     void refreshReturnsNewTokensOnSuccess() {
         // given
@@ -168,7 +211,7 @@ class UserServiceTest {
 
         when(userRepository.findById(42L)).thenReturn(Optional.of(user));
         when(jwtUtil.generateAccessToken(42L, "admin@bunnyland.com", Set.of("ADMIN"))).thenReturn("new-access");
-        when(jwtUtil.generateRefreshToken(42L, "admin@bunnyland.com")).thenReturn("new-refresh");
+        when(refreshTokenService.rotate(claims, user)).thenReturn(Optional.of("new-refresh"));
         when(jwtUtil.getAccessTtlSeconds()).thenReturn(900L);
 
         // when
@@ -187,10 +230,33 @@ class UserServiceTest {
 
         verify(jwtUtil).parseRefreshToken(refresh);
         verify(jwtUtil).generateAccessToken(42L, "admin@bunnyland.com", Set.of("ADMIN"));
-        verify(jwtUtil).generateRefreshToken(42L, "admin@bunnyland.com");
+        verify(refreshTokenService).rotate(claims, user);
         verify(jwtUtil).getAccessTtlSeconds();
     }
 
+    @Test
+    void refreshFailsWhenTokenAlreadyRotated() {
+        String refresh = "spent-token";
+        Claims claims = mock(Claims.class);
+        when(jwtUtil.parseRefreshToken(refresh)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("admin@bunnyland.com");
+        when(claims.get("id", Long.class)).thenReturn(42L);
+
+        var user = new User();
+        user.setId(42L);
+        user.setEmail("admin@bunnyland.com");
+
+        when(userRepository.findById(42L)).thenReturn(Optional.of(user));
+        when(refreshTokenService.rotate(claims, user)).thenReturn(Optional.empty());
+
+        var result = userService.refresh(new RefreshRequest(refresh));
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().status()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_REFRESH_TOKEN);
+        verify(jwtUtil, never()).generateAccessToken(any(), any(), any());
+    }
+
     @Test
     void refreshFailsWhenUserNotFoundOrEmailMismatch() {
         // given: token says id=7 & subject=email A, but DB has a different email (filter makes Optional empty)
@@ -214,7 +280,7 @@ class UserServiceTest {
         assertThat(result.error().status()).isEqualTo(HttpStatus.UNAUTHORIZED);
         assertThat(result.error().code()).isEqualTo(ErrorCode.USER_NOT_FOUND);
         verify(jwtUtil, never()).generateAccessToken(any(), any(), any());
-        verify(jwtUtil, never()).generateRefreshToken(any(), any());
+        verify(refreshTokenService, never()).rotate(any(), any());
     }
 
     @Test
@@ -232,16 +298,35 @@ class UserServiceTest {
         assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_REFRESH_TOKEN);
         verify(userRepository, never()).findById(any());
         verify(jwtUtil, never()).generateAccessToken(any(), any(), any());
-        verify(jwtUtil, never()).generateRefreshToken(any(), any());
+        verify(refreshTokenService, never()).rotate(any(), any());
+    }
+
+    @Test
+    void logoutRevokesTheTokenFamily() {
+        Claims claims = mock(Claims.class);
+        when(jwtUtil.parseRefreshToken("rt")).thenReturn(claims);
+
+        var result = userService.logout(new RefreshRequest("rt"));
+
+        assertThat(result.hasError()).isFalse();
+        verify(refreshTokenService).revoke(claims);
+    }
+
+    @Test
+    void logoutFailsWhenTokenInvalid() {
+        when(jwtUtil.parseRefreshToken("bad-token")).thenThrow(new JwtException("invalid"));
+
+        var result = userService.logout(new RefreshRequest("bad-token"));
+
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_REFRESH_TOKEN);
+        verify(refreshTokenService, never()).revoke(any());
     }
 
     @Test
     void meReturnsProfileWhenTokenValid() {
         // given
-        String access = "access-token";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(access)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(15L);
+        AuthenticatedUser caller = new AuthenticatedUser(15L, "user@example.com", Set.of("OWNER"));
 
         var user = new User();
         user.setId(15L);
@@ -254,7 +339,7 @@ class UserServiceTest {
         when(userRepository.findById(15L)).thenReturn(Optional.of(user));
 
         // when
-        var result = userService.me(access);
+        var result = userService.me(caller);
 
         // then
         assertThat(result.hasError()).isFalse();
@@ -267,44 +352,23 @@ class UserServiceTest {
         assertThat(body.country()).isEqualTo("Country");
         assertThat(body.roles()).containsExactly(Role.OWNER);
 
-        verify(jwtUtil).parseAccessToken(access);
         verify(userRepository).findById(15L);
     }
 
     @Test
     void meFailsWhenUserNotFound() {
         // given
-        String access = "a";
-        Claims claims = mock(Claims.class);
-        when(jwtUtil.parseAccessToken(access)).thenReturn(claims);
-        when(claims.get("id", Long.class)).thenReturn(9L);
+        AuthenticatedUser caller = new AuthenticatedUser(9L, "gone@example.com", Set.of("OWNER"));
 
         when(userRepository.findById(9L)).thenReturn(Optional.empty());
 
         // when
-        var result = userService.me(access);
+        var result = userService.me(caller);
 
         // then
         assertThat(result.hasError()).isTrue();
         assertThat(result.error().status()).isEqualTo(HttpStatus.UNAUTHORIZED);
         assertThat(result.error().code()).isEqualTo(ErrorCode.USER_NOT_FOUND);
-        verify(jwtUtil).parseAccessToken(access);
         verify(userRepository).findById(9L);
     }
-
-    @Test
-    void meFailsWhenTokenInvalid() {
-        // given
-        String access = "bad";
-        when(jwtUtil.parseAccessToken(access)).thenThrow(new JwtException("invalid"));
-
-        // when
-        var result = userService.me(access);
-
-        // then
-        assertThat(result.hasError()).isTrue();
-        assertThat(result.error().status()).isEqualTo(HttpStatus.UNAUTHORIZED);
-        assertThat(result.error().code()).isEqualTo(ErrorCode.INVALID_CREDENTIALS);
-        verify(userRepository, never()).findById(any());
-    }
 }